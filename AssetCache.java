@@ -0,0 +1,209 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/**
+ * Loads the game's pictures and keeps scaled copies of them.
+ *
+ * Pictures are decoded on a small pool of background threads, all at
+ * once, as soon as they are asked to be preloaded. The UI never waits
+ * for them: it asks for loadedImage() or loadedIcon(), which give null
+ * until the picture has been decoded, and has whenLoaded() tell it on
+ * the Event Dispatch Thread when to ask again. image() and icon() wait
+ * for the picture instead, for code that is not drawing on screen.
+ *
+ * Scaled copies are kept for each picture and size, so showing the same
+ * card again never scales it again. Only the most recently used copies
+ * are kept, to bound the memory used.
+ */
+public class AssetCache {
+    /**
+     * How many scaled copies are kept by default.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final File directory;
+    private final ExecutorService pool;
+    // Every picture that has started loading, by file name
+    private final Map<String, CompletableFuture<BufferedImage>> images = new ConcurrentHashMap<>();
+    // Scaled copies by file name and size, least recently used first
+    private final Map<String, ImageIcon> icons;
+
+    /**
+     * @param directory The directory the pictures are in, e.g. "resources"
+     * @param capacity How many scaled copies to keep
+     */
+    public AssetCache(String directory, int capacity){
+        this.directory = new File(directory);
+        this.pool = Executors.newFixedThreadPool(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())), task -> {
+            Thread thread = new Thread(task, "asset-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.icons = new LinkedHashMap<String, ImageIcon>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ImageIcon> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Starts loading pictures in the background, without waiting for them.
+     *
+     * @param fileNames The pictures' file names within the directory
+     */
+    public void preload(Collection<String> fileNames){
+        for(String fileName : fileNames){
+            start(fileName);
+        }
+    }
+
+    private CompletableFuture<BufferedImage> start(String fileName){
+        return images.computeIfAbsent(fileName, name -> CompletableFuture.supplyAsync(() -> read(name), pool));
+    }
+
+    /**
+     * Decodes a picture, giving null if it cannot be. ImageIO can throw
+     * runtime exceptions on a malformed file, which are caught as well so
+     * that the picture's future still completes normally.
+     */
+    private BufferedImage read(String fileName){
+        try {
+            BufferedImage image = ImageIO.read(new File(directory, fileName));
+            if(image == null){
+                System.out.println("Could not load " + fileName + " from the " + directory + " directory - not a picture");
+            }
+            return image;
+        }
+        catch (IOException | RuntimeException e) {
+            System.out.println("Could not load " + fileName + " from the " + directory + " directory - " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Runs something on the Event Dispatch Thread once a picture has
+     * finished loading (or failed to), e.g. to swap it in for a
+     * placeholder. If it already has, the action is run soon after.
+     *
+     * @param fileName The picture's file name within the directory
+     * @param action What to run
+     */
+    public void whenLoaded(String fileName, Runnable action){
+        start(fileName).thenRun(() -> EventQueue.invokeLater(action));
+    }
+
+    /**
+     * Gets a picture at its full size if it has finished loading, without
+     * waiting for it. It is started loading if it has not been already.
+     *
+     * @param fileName The picture's file name within the directory
+     * @return The picture, or null if it is still loading or could not be loaded
+     */
+    public BufferedImage loadedImage(String fileName){
+        if(fileName == null){
+            return null;
+        }
+        return start(fileName).getNow(null);
+    }
+
+    /**
+     * Gets a picture scaled to a size if it has finished loading, without
+     * waiting for it, scaling it only the first time.
+     *
+     * @param fileName The picture's file name within the directory
+     * @param width The width to scale to
+     * @param height The height to scale to
+     * @return The scaled picture, or null if it is still loading or could not be loaded
+     */
+    public ImageIcon loadedIcon(String fileName, int width, int height){
+        return loadedImage(fileName) == null ? null : icon(fileName, width, height);
+    }
+
+    /**
+     * Gets a picture at its full size, waiting for it if it is still loading.
+     *
+     * @param fileName The picture's file name within the directory
+     * @return The picture, or null if it could not be loaded
+     */
+    public BufferedImage image(String fileName){
+        if(fileName == null){
+            return null;
+        }
+        return start(fileName).join();
+    }
+
+    /**
+     * Gets a picture scaled to a size, scaling it only the first time.
+     *
+     * @param fileName The picture's file name within the directory
+     * @param width The width to scale to
+     * @param height The height to scale to
+     * @return The scaled picture, or null if it could not be loaded
+     */
+    public ImageIcon icon(String fileName, int width, int height){
+        String key = fileName + '@' + width + 'x' + height;
+        synchronized (icons) {
+            ImageIcon icon = icons.get(key);
+            if(icon != null){
+                return icon;
+            }
+        }
+        BufferedImage image = image(fileName);
+        if(image == null){
+            return null;
+        }
+        ImageIcon icon = new ImageIcon(scale(image, width, height));
+        synchronized (icons) {
+            icons.put(key, icon);
+        }
+        return icon;
+    }
+
+    /**
+     * @return How many scaled copies are being kept
+     */
+    public int iconCount(){
+        synchronized (icons) {
+            return icons.size();
+        }
+    }
+
+    /**
+     * Scales a picture smoothly, halving it with bilinear filtering until
+     * it is close to the size asked for, which looks as good as
+     * Image.SCALE_SMOOTH for a fraction of the work.
+     *
+     * @param source The picture to scale
+     * @param width The width to scale to
+     * @param height The height to scale to
+     * @return A new picture of exactly that size
+     */
+    public static BufferedImage scale(BufferedImage source, int width, int height){
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            if(currentWidth < width * 2 && currentHeight < height * 2){
+                currentWidth = width;
+                currentHeight = height;
+            }
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            g.dispose();
+            current = next;
+        } while(currentWidth != width || currentHeight != height);
+        return current;
+    }
+}
@@ -0,0 +1,326 @@
+import java.util.Arrays;
+
+/**
+ * A packed representation of the Board's walls and occupancy. Every
+ * square gets one bit in each mask, numbered row by row
+ * (index = row * width + column), so the standard 24x25 board fits in
+ * ten longs per mask. Whole-board questions like "where can a player
+ * get to in six steps" become a handful of shifts and ANDs instead of
+ * a walk over Location objects.
+ */
+public class BitBoard {
+    public static final int NORTH = 0;
+    public static final int EAST = 1;
+    public static final int SOUTH = 2;
+    public static final int WEST = 3;
+
+    final int width;
+    final int height;
+    final int words;
+    // A set bit means the square has a wall on that side, indexed by direction
+    final long[][] walls;
+    final long[] passageway;
+    final long[] occupied;
+    // Squares a piece can step east or west from without leaving the row
+    private final long[] notLastColumn;
+    private final long[] notFirstColumn;
+
+    private OccupancyListener[] listeners = new OccupancyListener[0];
+    // Goes up every time a square becomes occupied or unoccupied, so results can tell they are out of date
+    int occupancyVersion;
+
+    // Scratch space for flood fills, so they do not allocate
+    private final long[] frontier;
+    private final long[] next;
+    private final long[] moved;
+    private final long[] shifted;
+    // The words a flood fill can touch: a piece cannot get further than
+    // steps rows away, so on a big Board most words are left alone
+    private int low;
+    private int high;
+
+    /**
+     * Creates an empty BitBoard (no walls, nothing occupied).
+     *
+     * @param width The number of columns on the Board
+     * @param height The number of rows on the Board
+     */
+    public BitBoard(int width, int height){
+        this.width = width;
+        this.height = height;
+        this.words = (width * height + 63) >>> 6;
+        this.walls = new long[4][words];
+        this.passageway = new long[words];
+        this.occupied = new long[words];
+        this.notLastColumn = new long[words];
+        this.notFirstColumn = new long[words];
+        for(int index = 0; index < width * height; index++){
+            if(index % width != width - 1){
+                set(notLastColumn, index);
+            }
+            if(index % width != 0){
+                set(notFirstColumn, index);
+            }
+        }
+        this.frontier = new long[words];
+        this.next = new long[words];
+        this.moved = new long[words];
+        this.shifted = new long[words];
+    }
+
+    /**
+     * Creates a BitBoard that uses the same walls and Passageway as
+     * another one (shared, not copied), with nothing occupied.
+     */
+    private BitBoard(BitBoard shape){
+        this.width = shape.width;
+        this.height = shape.height;
+        this.words = shape.words;
+        this.walls = shape.walls;
+        this.passageway = shape.passageway;
+        this.occupied = new long[words];
+        this.notLastColumn = shape.notLastColumn;
+        this.notFirstColumn = shape.notFirstColumn;
+        this.frontier = new long[words];
+        this.next = new long[words];
+        this.moved = new long[words];
+        this.shifted = new long[words];
+    }
+
+    /**
+     * Gets a BitBoard for a new game on this board: the walls are
+     * shared with this one, so they must not be changed after this is
+     * called, but the occupancy is its own.
+     *
+     * @return The new BitBoard, with nothing occupied
+     */
+    public BitBoard sharingWalls(){
+        return new BitBoard(this);
+    }
+
+    /**
+     * @param row The row of a square
+     * @param column The column of a square
+     * @return The bit index of that square
+     */
+    public int index(int row, int column){
+        return row * width + column;
+    }
+
+    static boolean get(long[] mask, int index){
+        return (mask[index >>> 6] & (1L << index)) != 0;
+    }
+
+    static void set(long[] mask, int index){
+        mask[index >>> 6] |= 1L << index;
+    }
+
+    static void clear(long[] mask, int index){
+        mask[index >>> 6] &= ~(1L << index);
+    }
+
+    public boolean hasWall(int index, int direction){
+        return get(walls[direction], index);
+    }
+
+    public void setWall(int index, int direction){
+        set(walls[direction], index);
+    }
+
+    public boolean isPassageway(int index){
+        return get(passageway, index);
+    }
+
+    public void setPassageway(int index){
+        set(passageway, index);
+    }
+
+    public boolean isOccupied(int index){
+        return get(occupied, index);
+    }
+
+    public void setOccupied(int index, boolean isOccupied){
+        if(isOccupied == isOccupied(index)){
+            return;
+        }
+        if(isOccupied){
+            set(occupied, index);
+        }
+        else{
+            clear(occupied, index);
+        }
+        occupancyVersion++;
+        for(OccupancyListener listener : listeners){
+            listener.occupancyChanged(index);
+        }
+    }
+
+    /**
+     * Registers something to be told whenever a square becomes
+     * occupied or unoccupied.
+     *
+     * @param listener The listener to add
+     */
+    public void addOccupancyListener(OccupancyListener listener){
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    /**
+     * Checks if a piece on a square can step one square in a direction:
+     * the step must stay on the Board, not cross a wall on this square's
+     * side, and not land on an occupied square.
+     *
+     * @param index The square the piece is on
+     * @param direction One of NORTH, EAST, SOUTH or WEST
+     * @return True if the step is allowed
+     */
+    public boolean canMove(int index, int direction){
+        int destination;
+        switch(direction){
+            case NORTH:
+                if(index < width){
+                    return false;
+                }
+                destination = index - width;
+                break;
+            case EAST:
+                if(index % width == width - 1){
+                    return false;
+                }
+                destination = index + 1;
+                break;
+            case SOUTH:
+                if(index >= width * (height - 1)){
+                    return false;
+                }
+                destination = index + width;
+                break;
+            case WEST:
+                if(index % width == 0){
+                    return false;
+                }
+                destination = index - 1;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown direction " + direction);
+        }
+        return !hasWall(index, direction) && !isOccupied(destination);
+    }
+
+    /**
+     * Finds every Passageway square a piece can reach from a square in
+     * at most the given number of steps, without crossing walls or
+     * stepping on occupied squares. The starting square is included.
+     *
+     * @param start The square the piece starts on
+     * @param steps The most steps the piece can take
+     * @param reached Filled with the reachable squares, one bit each;
+     *                must hold at least words longs
+     * @param throughPieces If true, occupied squares are treated as empty
+     */
+    public void reachable(int start, int steps, long[] reached, boolean throughPieces){
+        reachable(start, steps, reached, throughPieces, null);
+    }
+
+    /**
+     * Finds every Passageway square a piece can reach, as the other
+     * reachable() does, never stepping on a square to avoid.
+     *
+     * @param avoid Squares that must not be stepped on, one bit each, or null
+     */
+    public void reachable(int start, int steps, long[] reached, boolean throughPieces, long[] avoid){
+        Arrays.fill(reached, 0, words, 0L);
+        long reach = (long) steps * width;
+        low = (int) (Math.max(0, start - reach) >>> 6);
+        high = (int) Math.min(words, ((start + reach) >>> 6) + 1);
+        Arrays.fill(frontier, low, high, 0L);
+        set(reached, start);
+        set(frontier, start);
+        for(int step = 0; step < steps; step++){
+            Arrays.fill(next, low, high, 0L);
+            // North means index - width, south means index + width
+            stepFrontier(walls[NORTH], null, -width);
+            stepFrontier(walls[SOUTH], null, width);
+            stepFrontier(walls[EAST], notLastColumn, 1);
+            stepFrontier(walls[WEST], notFirstColumn, -1);
+            boolean grew = false;
+            for(int i = low; i < high; i++){
+                next[i] &= passageway[i] & (throughPieces ? -1L : ~occupied[i]) & ~reached[i] & (avoid == null ? -1L : ~avoid[i]);
+                reached[i] |= next[i];
+                frontier[i] = next[i];
+                grew |= next[i] != 0;
+            }
+            if(!grew){
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves every frontier square that has no wall on one side a
+     * distance along the bits, adding the results to next.
+     */
+    private void stepFrontier(long[] wall, long[] stayOnRow, int distance){
+        for(int i = low; i < high; i++){
+            moved[i] = frontier[i] & ~wall[i] & (stayOnRow == null ? -1L : stayOnRow[i]);
+        }
+        if(distance > 0){
+            shiftUp(moved, distance, shifted);
+        }
+        else{
+            shiftDown(moved, -distance, shifted);
+        }
+        for(int i = low; i < high; i++){
+            next[i] |= shifted[i];
+        }
+    }
+
+    /**
+     * Moves every bit between low and high n places towards the higher
+     * indexes. Bits outside are treated as clear.
+     */
+    private void shiftUp(long[] source, int n, long[] destination){
+        int wordShift = n >>> 6;
+        int bitShift = n & 63;
+        for(int i = high - 1; i >= low; i--){
+            int from = i - wordShift;
+            long value = 0;
+            if(from >= low){
+                value = source[from] << bitShift;
+                if(bitShift != 0 && from > low){
+                    value |= source[from - 1] >>> (64 - bitShift);
+                }
+            }
+            destination[i] = value;
+        }
+    }
+
+    /**
+     * Moves every bit between low and high n places towards the lower
+     * indexes. Bits outside are treated as clear.
+     */
+    private void shiftDown(long[] source, int n, long[] destination){
+        int wordShift = n >>> 6;
+        int bitShift = n & 63;
+        for(int i = low; i < high; i++){
+            int from = i + wordShift;
+            long value = 0;
+            if(from < high){
+                value = source[from] >>> bitShift;
+                if(bitShift != 0 && from + 1 < high){
+                    value |= source[from + 1] << (64 - bitShift);
+                }
+            }
+            destination[i] = value;
+        }
+    }
+
+    /**
+     * Something that needs to know when squares become occupied or
+     * unoccupied, e.g. to throw away results that depended on them.
+     */
+    public interface OccupancyListener {
+        void occupancyChanged(int index);
+    }
+}
@@ -1,4 +1,5 @@
 import java.io.*;
+import java.nio.CharBuffer;
 import java.util.*;
 import java.util.regex.Pattern;
 
@@ -8,24 +9,91 @@ import java.util.regex.Pattern;
  * @author Jared Boult
  */
 public class Board {
-    public static final int WIDTH = 24;
-    public static final int HEIGHT = 25;
+    // The file the layout of the Board is read from (or its compiled copy, see BoardLoader)
+    static final String BOARD_FILE = "standard_board.txt";
 
-    Location[][] currentBoard = new Location[HEIGHT][WIDTH];
-    StringBuilder[] printableBoard = new StringBuilder[HEIGHT*2+1];
+    // The icons of the characters' and weapons' pieces, in the order of CardRegistry.CHARACTERS and WEAPONS
+    private static final String[] CHARACTER_ICONS = {"S", "M", "W", "G", "P", "L"};
+    private static final String[] WEAPON_ICONS = {"c", "d", "l", "g", "r", "s"};
+    /**
+     * How many pieces every Board has, so the ids of its pieces run from 0 up to this.
+     * Characters come first, so a character's piece id is its card's index,
+     * and a weapon's is its card's index plus the number of characters.
+     */
+    public static final int PIECE_COUNT = CardRegistry.CHARACTERS.size() + CardRegistry.WEAPONS.size();
+    // The icons of the Players' pieces, the only pieces draw() shows
+    private static final String PLAYER_ICONS = "GWPLSM";
+
+    // The walls, Rooms and distances, shared with every other Board from the same file
+    final BoardTopology topology;
+    final int width;
+    final int height;
+    Location[][] currentBoard;
+    // The occupancy of every Location packed into bits, sharing the topology's walls
+    BitBoard bits;
+    ReachabilityCache reachability;
+    // Rooms indexed by id, and the Rooms that can be suggested indexed by their cards' index
+    private Room[] roomsById;
+    private Room[] playableRooms;
+    private Room passageway;
+    // Pieces indexed by id
+    private final Piece[] piecesById = new Piece[PIECE_COUNT];
+    // Reused by every draw(): the topology's outline with the Players under its labels
+    private char[] frame;
     Map<String, Room> rooms = new HashMap<>();
     Map<String, Piece> pieces = new HashMap<>();
     boolean exitLabelsRequired = false;
     List<Location> exitsToLabel = new ArrayList<>();
+    private final GameRandom random;
+    // Reused by every findPath(): the square each square was reached from,
+    // and the generation it was reached in (older generations are unvisited)
+    private int[] pathPrevious;
+    private int[] pathVisited;
+    private int[] pathQueue;
+    private int pathGeneration;
+    // The squares and Rooms found by the last canReach() that avoided
+    // squares, and the start, steps, squares avoided and occupancy it was for
+    private long[] avoidMask;
+    private long[] avoidScratch;
+    private long[] avoidSquares;
+    private long[] avoidRooms;
+    private int avoidStart = -1;
+    private int avoidSteps;
+    private int avoidCount;
+    private int avoidVersion;
+
+    /**
+     * Constructor for the game's Board, laid out by the standard board file
+     *
+     * @param random Where the Board's random decisions (e.g. weapon
+     *               placement) come from
+     */
+    public Board(GameRandom random){
+        this(random, loadTopology(BOARD_FILE));
+    }
 
     /**
-     * Constructor for the game's Board
+     * Constructor for a Board of any size and layout
+     *
+     * @param random Where the Board's random decisions (e.g. weapon
+     *               placement) come from
+     * @param topology The layout of the Board, see BoardTopology
      */
-    public Board(){
+    public Board(GameRandom random, BoardTopology topology){
+        this.random = random;
+        this.topology = topology;
+        this.width = topology.width;
+        this.height = topology.height;
+        this.currentBoard = new Location[height][width];
+        this.bits = topology.bits.sharingWalls();
         setupRooms();
-        loadBoard();
+        setupLocations();
+        // Entrances must be known before the weapons are placed, so
+        // that no weapon starts on a Room's entrance
+        addRoomEntrancesAndExits();
+        setupPlayableRooms();
+        setupReachability();
         setupPieces();
-        calculateRoomEntrancesAndExits();
     }
 
     public Map<String, Piece> getPieces() {
@@ -37,55 +105,62 @@ public class Board {
     }
 
     /**
-     * Creates the Room objects for the default Cluedo board
+     * @return The number of columns of the Board
      */
-    private void setupRooms(){
-        String[] defaultRoomNames = {"Kitchen", "Ball Room", "Conservatory",
-                "Billiard Room", "Dining Room", "Library",
-                "Hall", "Lounge", "Study", "Cellar", "Passageway"};
-        for(String roomName : defaultRoomNames){
-            rooms.put(roomName, new Room(roomName));
-        }
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return The number of rows of the Board
+     */
+    public int getHeight() {
+        return height;
     }
 
     /**
-     * Reads the Board data from a text file and constructs
-     * a 2D array of Location objects that contain each square's
-     * Room, wall and Piece information.
+     * Gets the shared topology of a board file, which is only read
+     * and worked out by the first Board.
+     *
+     * @throws UncheckedIOException If the board file cannot be read, so
+     *         no Board is made without its layout
      */
-    private void loadBoard(){
+    static BoardTopology loadTopology(String fileName){
         try {
-            File file = new File("standard_board.txt");
-            Scanner scan = new Scanner(file);
-            scan.useDelimiter(",");
-            for (int row = 0; row < HEIGHT; row++) {
-                for(int col = 0; col < WIDTH; col++) {
-                    String cellData = scan.next().trim();
-                    String roomDescription = cellData;
-                    String walls = "";
-                    if (cellData.contains("_")) {
-                        String[] temp = cellData.split("_");
-                        roomDescription = temp[0];
-                        walls = temp[1];
-                    }
+            return BoardTopology.load(fileName);
+        }
+        catch (IOException e){
+            throw new UncheckedIOException("Error reading file \"" + fileName + "\"", e);
+        }
+    }
 
-                    Room currentRoom = null;
-                    if (roomDescription.equals("P")) {
-                        currentRoom = rooms.get("Passageway");
-                    } else if (!roomDescription.equals("X")) {
-                        currentRoom = rooms.get(roomDescription);
-                    }
+    /**
+     * Creates the Room objects named by the board file
+     */
+    private void setupRooms(){
+        roomsById = new Room[topology.roomNames.length];
+        for(String roomName : topology.roomNames){
+            Room room = new Room(roomName, rooms.size(), rooms.size() == topology.passagewayId, random);
+            roomsById[room.getId()] = room;
+            rooms.put(roomName, room);
+        }
+        passageway = topology.passagewayId >= 0 ? roomsById[topology.passagewayId] : null;
+    }
 
-                    currentBoard[row][col] = new Location(currentRoom, walls, row, col);
-                    if(currentRoom != null){
-                        currentRoom.addLocation(currentBoard[row][col]);
-                    }
+    /**
+     * Constructs a 2D array of Location objects for this game, one
+     * per square of the topology, each in its Room.
+     */
+    private void setupLocations(){
+        for (int row = 0; row < height; row++) {
+            for(int col = 0; col < width; col++) {
+                int roomId = topology.roomOf[bits.index(row, col)];
+                Room currentRoom = roomId < 0 ? null : roomsById[roomId];
+                currentBoard[row][col] = new Location(bits, currentRoom, row, col);
+                if(currentRoom != null){
+                    currentRoom.addLocation(currentBoard[row][col]);
                 }
             }
-            scan.close();
-        }
-        catch (IOException e){
-            System.out.println("Error reading file \"standard_board.txt\".");
         }
     }
 
@@ -93,22 +168,104 @@ public class Board {
      * Creates the pieces that can be moved around the Board during the game.
      */
     private void setupPieces(){
-        // The characters start at the same position every game.
-        pieces.put("Miss Scarlet", new Piece("S", currentBoard[24][7]));
-        pieces.put("Colonel Mustard", new Piece("M", currentBoard[17][0]));
-        pieces.put("Mrs White", new Piece("W", currentBoard[0][9]));
-        pieces.put("Mr Green", new Piece("G", currentBoard[0][14]));
-        pieces.put("Mrs Peacock", new Piece("P", currentBoard[6][23]));
-        pieces.put("Professor Plum", new Piece("L", currentBoard[19][23]));
+        // The characters start at the same position every game, as set by the board file.
+        List<String> characters = CardRegistry.CHARACTERS;
+        for(int i = 0; i < characters.size(); i++){
+            Integer start = topology.startSquares.get(characters.get(i));
+            if(start == null){
+                throw new IllegalStateException("The board does not say where " + characters.get(i) + " starts");
+            }
+            addPiece(new Piece(characters.get(i), CHARACTER_ICONS[i], i, currentBoard[start / width][start % width]));
+        }
 
         // The weapons start in random positions every game.
         List<Location> startLocations = getStartLocationsForWeapons();
-        pieces.put("Candlestick", new Piece("c", startLocations.get(0)));
-        pieces.put("Dagger", new Piece("d", startLocations.get(1)));
-        pieces.put("Lead Pipe", new Piece("l", startLocations.get(2)));
-        pieces.put("Revolver", new Piece("g", startLocations.get(3)));
-        pieces.put("Rope", new Piece("r", startLocations.get(4)));
-        pieces.put("Spanner", new Piece("s", startLocations.get(5)));
+        List<String> weapons = CardRegistry.WEAPONS;
+        if(startLocations.size() < weapons.size()){
+            throw new IllegalStateException("The board needs at least " + weapons.size() + " Rooms with entrances");
+        }
+        for(int i = 0; i < weapons.size(); i++){
+            addPiece(new Piece(weapons.get(i), WEAPON_ICONS[i], characters.size() + i, startLocations.get(i)));
+        }
+    }
+
+    private void addPiece(Piece piece){
+        pieces.put(piece.name(), piece);
+        piecesById[piece.id()] = piece;
+    }
+
+    /**
+     * Gets the piece of a character or weapon card by the card's index,
+     * without looking up its name.
+     *
+     * @param card A character or weapon card
+     * @return The card's piece
+     */
+    public Piece getPiece(Card card){
+        if(card.getIndex() < 0){
+            return pieces.get(card.getName());
+        }
+        return piecesById[card.getType() == Card.CardType.CHARACTER ? card.getIndex() : CardRegistry.CHARACTERS.size() + card.getIndex()];
+    }
+
+    /**
+     * Gets the Room of a room card by the card's index, without looking up its name.
+     *
+     * @param card A room card
+     * @return The card's Room
+     */
+    public Room getRoom(Card card){
+        return card.getIndex() < 0 ? rooms.get(card.getName()) : playableRooms[card.getIndex()];
+    }
+
+    /**
+     * Gets the square a piece is on, as its index in the BitBoard
+     * (row * width + column).
+     *
+     * @param pieceId The id of the piece
+     * @return The index of the piece's square
+     */
+    int getSquare(int pieceId){
+        return piecesById[pieceId].location().index;
+    }
+
+    /**
+     * Puts every piece straight onto a square, e.g. when a game is
+     * restored. The pieces are all lifted off before any are put down,
+     * so a piece can go where another one has just left.
+     *
+     * @param squares The index of each piece's square, by piece id
+     */
+    void setSquares(int[] squares){
+        for(Piece piece : piecesById){
+            Location from = piece.location();
+            if(from.index != squares[piece.id()] && from.getPiece() == piece){
+                from.setPiece(null);
+            }
+        }
+        for(Piece piece : piecesById){
+            int square = squares[piece.id()];
+            if(piece.location().index != square){
+                piece.place(currentBoard[square / width][square % width]);
+            }
+        }
+    }
+
+    /**
+     * @return The Passageway that joins the Rooms together, or null if the board has none
+     */
+    public Room getPassageway(){
+        return passageway;
+    }
+
+    /**
+     * Gets the piece a Player moves, by the index of their character.
+     *
+     * @param player The player
+     * @return The player's piece
+     */
+    Piece getPiece(Player player){
+        return piecesById[player.getCharacterIndex()];
     }
 
     /**
@@ -117,32 +274,60 @@ public class Board {
      * of weapon pieces.
      *
      * @return A list containing one random unused location
-     *         inside each Room (minus the Passageway)
+     *         inside each Room that can be walked into
      */
     private List<Location> getStartLocationsForWeapons(){
         List<Location> starting = new ArrayList<>();
         List<Room> allRooms = new ArrayList<Room>(rooms.values());
-        Collections.shuffle(allRooms);
+        random.shuffle(allRooms);
         for(Room room : allRooms){
-            if(!room.getName().equals("Passageway") &&
-                    !room.getName().equals("Cellar")) {
+            if(isPlayableRoom(room)) {
                 starting.add(room.getRandomRoomLocation());
             }
         }
         return starting;
     }
 
+    /**
+     * Gets the Rooms that can be suggested, in id order: every Room
+     * with an entrance, apart from the Passageway. On the standard
+     * board that leaves out the Cellar.
+     *
+     * @return The names of the Rooms
+     */
+    public List<String> getPlayableRoomNames(){
+        List<String> names = new ArrayList<>();
+        for(Room room : playableRooms){
+            names.add(room.getName());
+        }
+        return names;
+    }
+
+    private void setupPlayableRooms(){
+        List<Room> playable = new ArrayList<>();
+        for(Room room : roomsById){
+            if(isPlayableRoom(room)){
+                // Suggestions can bring every piece into one Room, so it must have a free square for each
+                if(room.getLocations().size() - room.getEntrances().size() < PIECE_COUNT){
+                    throw new IllegalStateException(room.getName() + " is too small to hold all " + PIECE_COUNT + " pieces");
+                }
+                playable.add(room);
+            }
+        }
+        playableRooms = playable.toArray(new Room[0]);
+    }
+
+    private boolean isPlayableRoom(Room room){
+        return !room.isPassageway() && !room.getEntrances().isEmpty();
+    }
+
     /**
      * Places the piece icon onto the Board according
      * to the piece's Location.
      */
     private void placePieces(){
         for (Piece p : pieces.values()){
-            int boardRow = p.location().point.y;
-            int boardColumn = p.location().point.x;
-            int charIndex = 4 * (boardColumn+1) - 2;
-            int charRow = 2*boardRow+1;
-            printableBoard[charRow].replace(charIndex, charIndex+1, p.icon());
+            placeIcon(p);
         }
     }
 
@@ -152,114 +337,64 @@ public class Board {
      */
     private void placePlayers(){
         for (Piece p : pieces.values()){
-            if(p.icon().matches("^[GWPLSM]$")) {
-                int boardRow = p.location().point.y;
-                int boardColumn = p.location().point.x;
-                int charIndex = 4 * (boardColumn + 1) - 2;
-                int charRow = 2 * boardRow + 1;
-                printableBoard[charRow].replace(charIndex, charIndex + 1, p.icon());
+            if(p.icon().length() == 1 && PLAYER_ICONS.indexOf(p.icon().charAt(0)) >= 0) {
+                placeIcon(p);
             }
         }
     }
 
+    /**
+     * Writes a piece's icon into the middle of its square in frame.
+     */
+    private void placeIcon(Piece p){
+        int boardRow = p.location().point.y;
+        int boardColumn = p.location().point.x;
+        int charIndex = 4 * (boardColumn + 1) - 2;
+        int charRow = 2 * boardRow + 1;
+        frame[charRow * topology.lineLength + charIndex] = p.icon().charAt(0);
+    }
+
     /**
      * Print the Board out to the console, without
      * the pieces because they are randomly placed and
      * will interfere with JUnit tests
      */
     public String draw(){
-        StringBuilder output = new StringBuilder();
-        placeWallsAndRooms();
-        placePlayers();
-        addRoomLabels();
+        renderFrame();
+        return new String(frame);
+    }
 
-        for(StringBuilder s : printableBoard){
-            output.append(s).append("\n");
+    /**
+     * Writes the same picture as draw() straight to out, without
+     * building a String first.
+     *
+     * @param out Where to write the Board, e.g. a Writer or StringBuilder
+     * @throws IOException If out cannot be written to
+     */
+    public void draw(Appendable out) throws IOException {
+        renderFrame();
+        if(out instanceof Writer){
+            ((Writer) out).write(frame);
+        }
+        else{
+            out.append(CharBuffer.wrap(frame));
         }
-        return output.toString();
     }
 
     /**
-     * Interprets the wall data for every Location in the
-     * 2D array to construct a visual representation of
-     * the Rooms out of "+" and "#" characters
+     * Fills frame with the walls, which are shared by every Board, then
+     * the Players, then the Room labels on top.
      */
-    private void placeWallsAndRooms(){
-        for(int row = 0; row < HEIGHT; row++){
-            int row1 = 2*row;
-            int row2 = row1 + 1;
-            int row3 = row2 + 1;
-            printableBoard[row1] = new StringBuilder();
-            for(int col = 0; col < WIDTH; col++){
-                Location location = currentBoard[row][col];
-                if(wallIsAdjacent(location) || location.northWall || location.westWall){
-                    printableBoard[row1].append("+");
-                }
-                else{
-                    printableBoard[row1].append(" ");
-                }
-                if(location.northWall){
-                    printableBoard[row1].append("###");
-                }
-                else{
-                    printableBoard[row1].append("   ");
-                }
-                if(location.point.x == WIDTH - 1){
-                    if(wallIsAdjacent(location) || location.northWall || location.eastWall){
-                        printableBoard[row1].append("+");
-                    }
-                    else{
-                        printableBoard[row1].append(" ");
-                    }
-                }
-            }
-            printableBoard[row2] = new StringBuilder();
-            for(int col = 0; col < WIDTH; col++){
-                Location location = currentBoard[row][col];
-                if(location.westWall){
-                    printableBoard[row2].append("#   ");
-                }
-                else{
-                    printableBoard[row2].append("    ");
-                }
-                if(location.point.x == WIDTH - 1){
-                    if(location.eastWall){
-                        printableBoard[row2].append("#");
-                    }
-                    else{
-                        printableBoard[row2].append(" ");
-                    }
-                }
-            }
-            if(row == HEIGHT - 1){
-                printableBoard[row3] = new StringBuilder();
-                for(int col = 0; col < WIDTH; col++){
-                    Location location = currentBoard[row][col];
-                    if(location.southWall || location.westWall){
-                        printableBoard[row3].append("+");
-                    }
-                    else{
-                        printableBoard[row3].append(" ");
-                    }
-                    if(location.southWall){
-                        printableBoard[row3].append("###");
-                    }
-                    else{
-                        printableBoard[row3].append("   ");
-                    }
-                    if(location.point.x == WIDTH - 1){
-                        if(wallIsAdjacent(location) || location.southWall || location.eastWall){
-                            printableBoard[row3].append("+");
-                        }
-                        else{
-                            printableBoard[row3].append(" ");
-                        }
-                    }
-                }
-            }
+    private void renderFrame(){
+        char[] outline = topology.outline();
+        if(frame == null){
+            frame = new char[outline.length];
         }
+        System.arraycopy(outline, 0, frame, 0, frame.length);
+        placePlayers();
+        topology.drawLabels(frame);
     }
-    
+
     /**
      * Tells the board which room needs exit labelling and returns
      * the list of exits back to Board
@@ -272,43 +407,6 @@ public class Board {
         return exitsToLabel;
     }
 
-    /**
-     * Place the name of the Rooms onto the Board
-     */
-    private void addRoomLabels(){
-        printableBoard[6].replace(78,90,"CONSERVATORY");
-        printableBoard[8].replace(9,16,"KITCHEN");
-        printableBoard[10].replace(44,53,"BALL ROOM");
-        printableBoard[20].replace(78, 86,"BILLIARD");
-        printableBoard[22].replace(80, 84, "ROOM");
-        printableBoard[24].replace(12, 18, "DINING");
-        printableBoard[26].replace(13, 17, "ROOM");
-        printableBoard[34].replace(79, 86,"LIBRARY");
-        printableBoard[42].replace(46, 50, "HALL");
-        printableBoard[44].replace(11, 17, "LOUNGE");
-        printableBoard[46].replace(80, 85,"STUDY");
-
-    }
-
-    /**
-     * Helper function for placeWallsAndRooms(), determines
-     * if the corner of an upper-left Locations needs to be drawn.
-     * @param location
-     * @return True if the upper-left Location has a south or east Wall
-     */
-    private boolean wallIsAdjacent(Location location){
-        if(location.room != null && location.room.getName().equals("Passageway")){
-            return true;
-        }
-        int x = location.point.x;
-        int y = location.point.y;
-        if(x > 0 && y > 0){
-            Location upperRightLocation = currentBoard[y-1][x-1];
-            return upperRightLocation.southWall || upperRightLocation.eastWall;
-        }
-        return false;
-    }
-
     public void printLegend(){
         System.out.println("--- Legend ---");
         for(Map.Entry<String, Piece> entry : pieces.entrySet()){
@@ -321,62 +419,79 @@ public class Board {
      * @param suggestion
      */
     public void movePiece(CardTuple suggestion){
-        Piece suggestedCharacter = pieces.get(suggestion.characterCard().getName());
-        Room suggestedRoom = rooms.get(suggestion.roomCard().getName());
-        Piece suggestedWeapon = pieces.get(suggestion.weaponCard().getName());
-        if(suggestedCharacter.location().room != suggestedRoom){
-            suggestedCharacter.setLocation(suggestedRoom.getRandomRoomLocation());
+        Piece suggestedCharacter = getPiece(suggestion.characterCard());
+        Room suggestedRoom = getRoom(suggestion.roomCard());
+        Piece suggestedWeapon = getPiece(suggestion.weaponCard());
+        moveInto(suggestedCharacter, suggestedRoom);
+        moveInto(suggestedWeapon, suggestedRoom);
+    }
+
+    /**
+     * Moves a piece to a free square in a Room, unless it is already in
+     * the Room or the Room has no free square left, when it stays put.
+     *
+     * @param piece The piece to move
+     * @param room The Room to move it into
+     * @return The square the piece was moved to, or null if it was not moved
+     */
+    Location moveInto(Piece piece, Room room){
+        if(piece.location().room == room){
+            return null;
         }
-        if(suggestedWeapon.location().room != suggestedRoom){
-            suggestedWeapon.setLocation(suggestedRoom.getRandomRoomLocation());
+        Location into = room.getRandomRoomLocation();
+        if(into != null){
+            piece.setLocation(into);
         }
+        return into;
     }
 
     /**
      * Store the entrance and exit squares between a room like
-     * the Study and the Passageway within each Room.
-     */
-    public void calculateRoomEntrancesAndExits(){
-        for(Room room : rooms.values()){
-            for(Location loc : room.getLocations()){
-                int col = loc.point.x;
-                int row = loc.point.y;
-                if(!loc.northWall && row > 0){
-                    Location possibleExit = currentBoard[row-1][col];
-                    if(possibleExit.room != null &&
-                            possibleExit.room.getName().equals("Passageway")){
-                        room.addEntrance(loc);
-                        room.addExit(possibleExit);
-                    }
-                }
-                if(!loc.eastWall && col < WIDTH){
-                    Location possibleExit = currentBoard[row][col+1];
-                    if(possibleExit.room != null &&
-                            possibleExit.room.getName().equals("Passageway")) {
-                        room.addEntrance(loc);
-                        room.addExit(possibleExit);
-                    }
-                }
-                if(!loc.southWall && row < HEIGHT){
-                    Location possibleExit = currentBoard[row+1][col];
-                    if(possibleExit.room != null &&
-                            possibleExit.room.getName().equals("Passageway")){
-                        room.addEntrance(loc);
-                        room.addExit(possibleExit);
-                    }
-                }
-                if(!loc.westWall && col > 0){
-                    Location possibleExit = currentBoard[row][col-1];
-                    if(possibleExit.room != null &&
-                            possibleExit.room.getName().equals("Passageway")){
-                        room.addEntrance(loc);
-                        room.addExit(possibleExit);
-                    }
-                }
+     * the Study and the Passageway within each Room, as found
+     * by the topology.
+     */
+    private void addRoomEntrancesAndExits(){
+        for(Room room : roomsById){
+            for(int entrance : topology.roomEntrances[room.getId()]){
+                room.addEntrance(currentBoard[entrance / width][entrance % width]);
+            }
+            for(int exit : topology.roomExits[room.getId()]){
+                room.addExit(currentBoard[exit / width][exit % width]);
             }
         }
     }
 
+    /**
+     * Gets how many steps it takes to walk from a Location into a Room,
+     * ignoring other pieces. Entering the Room counts as one step.
+     *
+     * @param from The Location to start from, in the Passageway or a Room
+     * @param room The Room to get to
+     * @return The number of steps (0 if already in the Room),
+     *         or -1 if the Room cannot be reached
+     */
+    public int getStepsToRoom(Location from, Room room){
+        if(from.room == null){
+            return -1;
+        }
+        if(from.room.isPassageway()){
+            return topology.stepsToRoom(room.getId())[from.index];
+        }
+        return getStepsBetweenRooms(from.room, room);
+    }
+
+    /**
+     * Gets how many steps it takes to walk out of one Room and into
+     * another, ignoring other pieces.
+     *
+     * @param from The Room to start in
+     * @param to The Room to get to
+     * @return The number of steps, or -1 if to cannot be reached
+     */
+    public int getStepsBetweenRooms(Room from, Room to){
+        return topology.stepsBetweenRooms(to.getId())[from.getId()];
+    }
+
     /**
      * This movePlayer can be used if the possible squares are already
      * validated, e.g. when choosing which exit to leave a Room via.
@@ -384,7 +499,7 @@ public class Board {
      * @param location The destination location
      */
     public void movePlayer(Player player, Location location){
-        pieces.get(player.getCharacterName()).setLocation(location);
+        getPiece(player).setLocation(location);
     }
 
 
@@ -398,7 +513,7 @@ public class Board {
      * @return True if the move was completed
      */
     public Integer movePlayer(Player player, String direction, Set<Location> locationsVisited, Stack<Location> prevLocations){
-        Piece playerPiece = pieces.get(player.getCharacterName());
+        Piece playerPiece = getPiece(player);
         Location playerLocation = playerPiece.location();
         Location destination = null;
         int x = playerLocation.point.x;
@@ -406,48 +521,330 @@ public class Board {
 
         switch(direction){
             case "W":
-                if(playerLocation.canMoveUp(this)){
+                if(playerLocation.canMoveUp()){
                     destination = currentBoard[y-1][x];
                     // Ensure a piece is never blocking another piece from entering the room
-                    if(!destination.room.getName().equals("Passageway")){
+                    if(!destination.room.isPassageway()){
                         destination = destination.room.getRandomRoomLocation();
                     }
                     break;
                 }
                 return -1;
             case "A":
-                if(playerLocation.canMoveLeft(this)){
+                if(playerLocation.canMoveLeft()){
                     destination = currentBoard[y][x-1];
-                    if(!destination.room.getName().equals("Passageway")){
+                    if(!destination.room.isPassageway()){
                         destination = destination.room.getRandomRoomLocation();
                     }
                     break;
                 }
                 return -1;
             case "S":
-                if(playerLocation.canMoveDown(this)){
+                if(playerLocation.canMoveDown()){
                     destination = currentBoard[y+1][x];
-                    if(!destination.room.getName().equals("Passageway")){
+                    if(!destination.room.isPassageway()){
                         destination = destination.room.getRandomRoomLocation();
                     }
                     break;
                 }
                 return -1;
             case "D":
-                if(playerLocation.canMoveRight(this)){
+                if(playerLocation.canMoveRight()){
                     destination = currentBoard[y][x+1];
-                    if(!destination.room.getName().equals("Passageway")){
+                    if(!destination.room.isPassageway()){
                         destination = destination.room.getRandomRoomLocation();
                     }
                     break;
                 }
                 return -1;
         }
+        // A Room with no free square left cannot be walked into
+        if (destination == null) { return -1; }
         if (!prevLocations.isEmpty() && !prevLocations.peek().equals(destination) && locationsVisited.contains(destination)) { return 1; }
         playerPiece.setLocation(destination);
         return 0;
     }
 
+    /**
+     * Creates the cache of which squares and Rooms can be reached
+     * from where.
+     */
+    private void setupReachability(){
+        reachability = new ReachabilityCache(bits, topology.roomExits, topology.footprints);
+    }
+
+    /**
+     * Finds every Passageway square a piece could walk to from a
+     * Location in at most the given number of steps, going around
+     * walls and other pieces. From inside a Room, the first step
+     * must be onto one of its unoccupied exits.
+     *
+     * @param from The Location to start from
+     * @param steps The most steps that can be taken
+     * @return The reachable squares as BitBoard bits (including from,
+     *         if it is in the Passageway). Must not be changed.
+     */
+    public long[] getReachableSquares(Location from, int steps){
+        if(!isInRoom(from)){
+            return reachability.squares(from.index, steps);
+        }
+        long[] reached = new long[bits.words];
+        if(steps > 0){
+            for(Location exit : from.room.getUnoccupiedExits()){
+                long[] fromExit = reachability.squares(exit.index, steps - 1);
+                for(int i = 0; i < reached.length; i++){
+                    reached[i] |= fromExit[i];
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Finds every Room a piece could walk into from a Location in at
+     * most the given number of steps.
+     *
+     * @param from The Location to start from
+     * @param steps The most steps that can be taken
+     * @return One bit for each reachable Room, at the Room's id, as
+     *         BitBoard bits. Must not be changed.
+     */
+    public long[] getReachableRooms(Location from, int steps){
+        if(!isInRoom(from)){
+            return reachability.rooms(from.index, steps);
+        }
+        long[] reached = new long[(roomsById.length + 63) >>> 6];
+        if(steps > 0){
+            for(Location exit : from.room.getUnoccupiedExits()){
+                long[] fromExit = reachability.rooms(exit.index, steps - 1);
+                for(int i = 0; i < reached.length; i++){
+                    reached[i] |= fromExit[i];
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Checks if a piece could walk from one Location to another (or
+     * into the other's Room) in at most the given number of steps.
+     *
+     * @param from The Location to start from
+     * @param steps The most steps that can be taken
+     * @param to The Location to get to
+     * @return True if the destination can be reached
+     */
+    public boolean canReach(Location from, int steps, Location to){
+        if(to.room == null){
+            return false;
+        }
+        if(isInRoom(to)){
+            return BitBoard.get(getReachableRooms(from, steps), to.room.getId());
+        }
+        return BitBoard.get(getReachableSquares(from, steps), to.index);
+    }
+
+    /**
+     * Checks if a piece could walk from one Location to another (or into
+     * the other's Room) in at most the given number of steps, never
+     * stepping on a square to avoid, the same as findPath() would. With
+     * nothing to avoid this is the cached canReach(); otherwise the walk
+     * is worked out once and kept until the piece moves, so asking about
+     * every square of the Board costs one flood fill.
+     *
+     * @param from The Location to start from
+     * @param steps The most steps that can be taken
+     * @param to The Location to get to
+     * @param avoid Squares that must not be walked on, e.g. squares
+     *              already visited this turn
+     * @return True if the destination can be reached
+     */
+    public boolean canReach(Location from, int steps, Location to, Set<Location> avoid){
+        if(avoid.isEmpty()){
+            return canReach(from, steps, to);
+        }
+        if(to.room == null){
+            return false;
+        }
+        // The walk depends on where the pieces are as well as on which squares are avoided
+        if(from.index != avoidStart || steps != avoidSteps || bits.occupancyVersion != avoidVersion || !sameAvoided(avoid)){
+            reachAvoiding(from, steps, avoid);
+        }
+        if(isInRoom(to)){
+            return BitBoard.get(avoidRooms, to.room.getId());
+        }
+        return BitBoard.get(avoidSquares, to.index);
+    }
+
+    /**
+     * Checks if the last walk worked out avoided exactly these squares.
+     * A set holds each square once, so the same number of squares all
+     * found in avoidMask means the same squares.
+     */
+    private boolean sameAvoided(Set<Location> avoid){
+        if(avoidMask == null || avoid.size() != avoidCount){
+            return false;
+        }
+        for(Location location : avoid){
+            if(!BitBoard.get(avoidMask, location.index)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reachAvoiding(Location from, int steps, Set<Location> avoid){
+        if(avoidMask == null){
+            avoidMask = new long[bits.words];
+            avoidScratch = new long[bits.words];
+            avoidSquares = new long[bits.words];
+            avoidRooms = new long[(roomsById.length + 63) >>> 6];
+        }
+        Arrays.fill(avoidMask, 0L);
+        for(Location location : avoid){
+            BitBoard.set(avoidMask, location.index);
+        }
+        Arrays.fill(avoidSquares, 0L);
+        Arrays.fill(avoidRooms, 0L);
+        if(!isInRoom(from)){
+            reachFrom(from.index, steps);
+        }
+        else if(steps > 0){
+            for(Location exit : from.room.getUnoccupiedExits()){
+                if(!avoid.contains(exit)){
+                    reachFrom(exit.index, steps - 1);
+                }
+            }
+        }
+        avoidStart = from.index;
+        avoidSteps = steps;
+        avoidCount = avoid.size();
+        avoidVersion = bits.occupancyVersion;
+    }
+
+    /**
+     * Adds the squares reachable from a square to avoidSquares, and the
+     * Rooms with an exit reachable one step short to avoidRooms.
+     */
+    private void reachFrom(int start, int steps){
+        bits.reachable(start, steps, avoidScratch, false, avoidMask);
+        for(int i = 0; i < avoidSquares.length; i++){
+            avoidSquares[i] |= avoidScratch[i];
+        }
+        if(steps == 0){
+            return;
+        }
+        bits.reachable(start, steps - 1, avoidScratch, false, avoidMask);
+        for(int id = 0; id < topology.roomExits.length; id++){
+            for(int exit : topology.roomExits[id]){
+                if(BitBoard.get(avoidScratch, exit)){
+                    BitBoard.set(avoidRooms, id);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds a shortest walk from one Location to another, going around
+     * walls and other pieces and never stepping on a square to avoid.
+     * From inside a Room the walk starts on one of its unoccupied exits.
+     * If the destination is inside a Room the walk ends on one of that
+     * Room's exits, leaving one step spare to walk in.
+     *
+     * @param from The Location to start from
+     * @param to The Location to get to
+     * @param steps The most steps that can be taken, including walking
+     *              into the destination Room
+     * @param avoid Squares that must not be walked on, e.g. squares
+     *              already visited this turn
+     * @return The Passageway squares walked onto in order (empty if no
+     *         steps are needed), or null if there is no such walk
+     */
+    public List<Location> findPath(Location from, Location to, int steps, Set<Location> avoid){
+        // The cached flood fill ignores avoid, so it can only rule walks out
+        if(from == to || !canReach(from, steps, to)){
+            return null;
+        }
+        boolean intoRoom = isInRoom(to);
+        int maxSteps = intoRoom ? steps - 1 : steps;
+        if(pathQueue == null){
+            pathPrevious = new int[width * height];
+            pathVisited = new int[width * height];
+            pathQueue = new int[width * height];
+        }
+        // A new generation marks every square unvisited without clearing
+        // arrays the size of the Board
+        int generation = ++pathGeneration;
+        int[] previous = pathPrevious;
+        int[] queue = pathQueue;
+        int head = 0;
+        int tail = 0;
+        // The queue holds one distance after another, so the distance of
+        // the square being looked at only changes when levelEnd is passed
+        int distance = 0;
+        if(isInRoom(from)){
+            distance = 1;
+            for(Location exit : from.room.getUnoccupiedExits()){
+                if(!avoid.contains(exit)){
+                    pathVisited[exit.index] = generation;
+                    previous[exit.index] = -1;
+                    queue[tail++] = exit.index;
+                }
+            }
+        }
+        else{
+            pathVisited[from.index] = generation;
+            previous[from.index] = -1;
+            queue[tail++] = from.index;
+        }
+        int levelEnd = tail;
+        // Bit index offsets for NORTH, EAST, SOUTH and WEST
+        int[] offsets = {-width, 1, width, -1};
+        while(head < tail){
+            if(head == levelEnd){
+                distance++;
+                levelEnd = tail;
+            }
+            int index = queue[head++];
+            Location here = currentBoard[index / width][index % width];
+            if(intoRoom ? here.exitIndexIn(to.room) >= 0 : here == to){
+                if(distance > maxSteps){
+                    return null;
+                }
+                LinkedList<Location> path = new LinkedList<>();
+                for(int at = index; at >= 0 && at != from.index; at = previous[at]){
+                    path.addFirst(currentBoard[at / width][at % width]);
+                }
+                return path;
+            }
+            if(distance >= maxSteps){
+                continue;
+            }
+            for(int direction = BitBoard.NORTH; direction <= BitBoard.WEST; direction++){
+                if(!bits.canMove(index, direction)){
+                    continue;
+                }
+                int next = index + offsets[direction];
+                if(pathVisited[next] != generation && bits.isPassageway(next)
+                        && !avoid.contains(currentBoard[next / width][next % width])){
+                    pathVisited[next] = generation;
+                    previous[next] = index;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param location A Location on this Board
+     * @return True if the Location is in a Room other than the Passageway
+     */
+    private boolean isInRoom(Location location){
+        return location.room != null && !location.room.isPassageway();
+    }
+
     /**
      * Get the current location of a Player Piece that corresponds
      * to a given Player.
@@ -456,7 +853,7 @@ public class Board {
      * @return the location of player's piece
      */
     public Location getPlayerLocation(Player player) {
-        return pieces.get(player.getCharacterName()).location();
+        return getPiece(player).location();
     }
 
     /**
@@ -466,8 +863,8 @@ public class Board {
      * @return True if the player is in a Room
      */
     public boolean checkPlayerInRoom(Player player){
-        Room playerRoom = pieces.get(player.getCharacterName()).location().room;
-        return playerRoom != null && !playerRoom.equals(rooms.get("Passageway"));
+        Room playerRoom = getPiece(player).location().room;
+        return playerRoom != null && !playerRoom.isPassageway();
     }
 
     /**
@@ -476,7 +873,7 @@ public class Board {
      * @return A Room object
      */
     public Room getPlayerRoom(Player player){
-        return pieces.get(player.getCharacterName()).location().room;
+        return getPiece(player).location().room;
     }
 
 }
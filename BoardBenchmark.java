@@ -0,0 +1,125 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Times the parts of the game that grow with the size of the Board, on
+ * the standard board and on generated boards of increasing size (see
+ * BoardGenerator), so changes that only hurt big boards show up.
+ *
+ * For each size it reports: parsing the text and compiled formats,
+ * working out the BoardTopology, building a Board, checking whether a
+ * roll can reach a square (the first time from each start square, then
+ * once the results are cached), finding a path, and the first distance
+ * into a Room (which is only worked out when asked for). A small board
+ * is run first without reporting, so the JIT has compiled the code.
+ *
+ * Usage: java BoardBenchmark [sizes...], e.g. java BoardBenchmark 24x25 300x300
+ */
+public class BoardBenchmark {
+    private static final String[] DEFAULT_SIZES = {"standard", "100x100", "300x300", "1000x1000"};
+    // Random start and end squares tried for each size
+    private static final int QUERIES = 2000;
+    // How many different squares the moves start from, about as many as
+    // a game has pieces moving around in a few turns
+    private static final int STARTS = 64;
+
+    public static void main(String[] args) throws IOException {
+        String[] sizes = args.length > 0 ? args : DEFAULT_SIZES;
+        for(int warmUp = 0; warmUp < 5; warmUp++){
+            run("60x60", false);
+        }
+        System.out.printf("%-10s %9s %9s %9s %9s %10s %10s %10s %10s%n", "board", "text ms", "bin ms",
+                "topo ms", "board ms", "reach cold", "reach warm", "path us", "dist ms");
+        for(String size : sizes){
+            run(size, true);
+        }
+    }
+
+    private static void run(String size, boolean report) throws IOException {
+        byte[] text;
+        if(size.equals("standard")){
+            text = java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(Board.BOARD_FILE));
+        }
+        else{
+            int x = size.indexOf('x');
+            int width = Integer.parseInt(size.substring(0, x));
+            int height = Integer.parseInt(size.substring(x + 1));
+            text = BoardGenerator.generate(width, height, 9, 1).getBytes(StandardCharsets.UTF_8);
+        }
+
+        long start = System.nanoTime();
+        BoardLoader.Layout layout = BoardLoader.parse(ByteBuffer.wrap(text));
+        double textMillis = millisSince(start);
+
+        ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+        BoardLoader.writeCompiled(layout, compiled);
+        byte[] bytes = compiled.toByteArray();
+        start = System.nanoTime();
+        BoardLoader.parse(ByteBuffer.wrap(bytes));
+        double compiledMillis = millisSince(start);
+
+        start = System.nanoTime();
+        BoardTopology topology = new BoardTopology(layout);
+        double topologyMillis = millisSince(start);
+
+        start = System.nanoTime();
+        Board board = new Board(new GameRandom(1), topology);
+        double boardMillis = millisSince(start);
+
+        // The same random Passageway squares for the cold and warm runs
+        List<Location> passageway = new ArrayList<>(board.getPassageway().getLocations());
+        GameRandom random = new GameRandom(2);
+        Location[] starts = new Location[STARTS];
+        for(int i = 0; i < STARTS; i++){
+            starts[i] = passageway.get(random.nextInt(passageway.size()));
+        }
+        Location[] from = new Location[QUERIES];
+        Location[] to = new Location[QUERIES];
+        for(int i = 0; i < QUERIES; i++){
+            from[i] = starts[i % STARTS];
+            Location near = board.currentBoard[Math.min(board.height - 1, from[i].point.y + random.nextInt(7))]
+                    [Math.min(board.width - 1, from[i].point.x + random.nextInt(7))];
+            to[i] = near.room == null ? from[i] : near;
+        }
+        int reached = 0;
+        start = System.nanoTime();
+        for(int i = 0; i < STARTS; i++){
+            reached += board.canReach(from[i], 12, to[i]) ? 1 : 0;
+        }
+        double coldNanos = (System.nanoTime() - start) / (double) STARTS;
+        start = System.nanoTime();
+        for(int i = 0; i < QUERIES; i++){
+            reached += board.canReach(from[i], 12, to[i]) ? 1 : 0;
+        }
+        double warmNanos = (System.nanoTime() - start) / (double) QUERIES;
+
+        start = System.nanoTime();
+        for(int i = 0; i < QUERIES; i++){
+            List<Location> path = board.findPath(from[i], to[i], 12, Collections.emptySet());
+            reached += path == null ? 0 : path.size();
+        }
+        double pathMicros = (System.nanoTime() - start) / 1e3 / QUERIES;
+
+        start = System.nanoTime();
+        reached += board.getStepsToRoom(from[0], board.rooms.get("Kitchen"));
+        double distanceMillis = millisSince(start);
+
+        if(!report){
+            return;
+        }
+        System.out.printf("%-10s %9.2f %9.2f %9.2f %9.2f %8.0fns %8.0fns %10.2f %10.2f%n",
+                topology.width + "x" + topology.height, textMillis, compiledMillis, topologyMillis,
+                boardMillis, coldNanos, warmNanos, pathMicros, distanceMillis);
+        // Use the answers so none of the work can be skipped
+        if(reached == Integer.MIN_VALUE){
+            System.out.println();
+        }
+    }
+
+    private static double millisSince(long start){
+        return (System.nanoTime() - start) / 1e6;
+    }
+}
@@ -0,0 +1,345 @@
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.function.Function;
+import javax.swing.*;
+
+/**
+ * Draws the whole Board as a single component: the squares, walls and
+ * Room names are painted once into a background image for the current
+ * size, and each repaint only copies that image and draws the reachable
+ * squares and the pieces on top. Each piece's picture is also scaled
+ * once for the current size and kept by piece id, so drawing a piece is
+ * a single copy. Clicks are turned into the Location under the mouse by
+ * dividing by the size of a square.
+ *
+ * When a piece moves, only the squares it left and arrived on are
+ * repainted, along with the squares that were lit up as reachable and
+ * the squares the current player could now get to.
+ */
+public class BoardCanvas extends JComponent implements BitBoard.OccupancyListener {
+    /**
+     * The size in pixels each square asks for.
+     */
+    public static final int PREFERRED_CELL_SIZE = 32;
+
+    private final Game game;
+    // Gets the full size picture of a piece by its name, or null if it has none
+    private final Function<String, Image> pieceImages;
+    // The squares, walls and Room names at the current cell size, or
+    // null if the component has been resized since they were drawn
+    private BufferedImage background;
+    // Each piece's picture at the current cell size, by piece id
+    private BufferedImage[] sprites;
+    private int cellSize;
+    // Where the top left square starts, so the Board is centred
+    private int originX;
+    private int originY;
+    // The rows and columns of the squares lit up as reachable by the
+    // latest paints, or null if there were none
+    private Rectangle highlighted;
+    // The squares pieces have moved onto or off since the last repaint
+    // request, and whether that request is waiting to be made
+    private Rectangle moved;
+    private boolean repaintQueued;
+
+    /**
+     * @param game The game whose Board is drawn and moved around on
+     * @param pieceImages Gets the picture of a piece by its name, or
+     *                    null if it should not be drawn (or is not ready
+     *                    yet, see picturesChanged())
+     */
+    public BoardCanvas(Game game, Function<String, Image> pieceImages){
+        this.game = game;
+        this.pieceImages = pieceImages;
+        setOpaque(true);
+        ToolTipManager.sharedInstance().registerComponent(this);
+        // Moving repaints the squares that changed, see occupancyChanged()
+        game.addOccupancyListener(this);
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                Location location = locationAt(e.getX(), e.getY());
+                if(location != null){
+                    game.movePlayerByMouse(location);
+                }
+            }
+        });
+    }
+
+    /**
+     * Remembers a square that a piece has just moved onto or off. The
+     * repaint is asked for once the move has finished, when it is known
+     * which squares the current player can get to.
+     */
+    @Override
+    public void occupancyChanged(int index){
+        Rectangle cell = new Rectangle(index % game.getBoardWidth(), index / game.getBoardWidth(), 1, 1);
+        moved = moved == null ? cell : moved.union(cell);
+        if(!repaintQueued){
+            repaintQueued = true;
+            SwingUtilities.invokeLater(this::repaintMoved);
+        }
+    }
+
+    private void repaintMoved(){
+        repaintQueued = false;
+        Rectangle cells = moved;
+        moved = null;
+        for(Rectangle more : new Rectangle[]{highlighted, reachArea()}){
+            if(more != null){
+                cells = cells == null ? more : cells.union(more);
+            }
+        }
+        if(cells != null){
+            repaintCells(cells);
+        }
+    }
+
+    /**
+     * Gets an area that holds every square the current player could
+     * walk to with the moves they have left, ignoring walls.
+     *
+     * @return The columns (x) and rows (y) of the area, or null if the
+     *         player cannot move
+     */
+    private Rectangle reachArea(){
+        Player player = game.getCurrentPlayer();
+        if(player == null || game.getCanRoll() || player.getRemainingMoves() <= 0){
+            return null;
+        }
+        Location at = game.getPlayerLocation(player);
+        Rectangle area = new Rectangle(at.point.x, at.point.y, 1, 1);
+        if(at.getRoom() != null && !at.getRoom().isPassageway()){
+            // Players leave a Room from any of its squares' doors
+            for(Location square : at.getRoom().getLocations()){
+                area.add(new Rectangle(square.point.x, square.point.y, 1, 1));
+            }
+        }
+        int moves = player.getRemainingMoves();
+        area.grow(moves, moves);
+        return area.intersection(new Rectangle(0, 0, game.getBoardWidth(), game.getBoardHeight()));
+    }
+
+    /**
+     * Asks for some squares to be repainted. Swing joins requests made
+     * before the next paint into one area.
+     *
+     * @param cells The columns (x) and rows (y) of the squares
+     */
+    private void repaintCells(Rectangle cells){
+        updateLayout();
+        repaint(originX + cells.x * cellSize, originY + cells.y * cellSize, cells.width * cellSize, cells.height * cellSize);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(game.getBoardWidth() * PREFERRED_CELL_SIZE, game.getBoardHeight() * PREFERRED_CELL_SIZE);
+    }
+
+    /**
+     * Gets the square under a point of this component.
+     *
+     * @param x The x coordinate in pixels
+     * @param y The y coordinate in pixels
+     * @return The Location drawn there, or null if the point is off the Board
+     */
+    public Location locationAt(int x, int y){
+        updateLayout();
+        if(cellSize <= 0 || x < originX || y < originY){
+            return null;
+        }
+        int col = (x - originX) / cellSize;
+        int row = (y - originY) / cellSize;
+        if(row >= game.getBoardHeight() || col >= game.getBoardWidth()){
+            return null;
+        }
+        return game.getLocation(row, col);
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        Location location = locationAt(e.getX(), e.getY());
+        if(location == null || !location.isOccupied()){
+            return null;
+        }
+        return location.piece.name();
+    }
+
+    /**
+     * Works out the largest square size that fits the Board in the
+     * component, throwing away the background if it has changed.
+     */
+    private void updateLayout(){
+        int size = Math.min(getWidth() / game.getBoardWidth(), getHeight() / game.getBoardHeight());
+        if(size != cellSize){
+            cellSize = size;
+            background = null;
+            sprites = null;
+        }
+        originX = (getWidth() - cellSize * game.getBoardWidth()) / 2;
+        originY = (getHeight() - cellSize * game.getBoardHeight()) / 2;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g){
+        g.setColor(getBackground() != null ? getBackground() : Color.LIGHT_GRAY);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        updateLayout();
+        if(cellSize <= 0){
+            return;
+        }
+        if(background == null){
+            background = drawBackground();
+        }
+        g.drawImage(background, originX, originY, null);
+
+        // Only the squares that need repainting
+        Rectangle clip = g.getClipBounds();
+        if(clip == null){
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int firstCol = Math.max(0, (clip.x - originX) / cellSize);
+        int firstRow = Math.max(0, (clip.y - originY) / cellSize);
+        int lastCol = Math.min(game.getBoardWidth() - 1, (clip.x + clip.width - originX) / cellSize);
+        int lastRow = Math.min(game.getBoardHeight() - 1, (clip.y + clip.height - originY) / cellSize);
+
+        // Lighten the squares the current player can still get to this turn
+        boolean wholeBoard = firstRow == 0 && firstCol == 0
+                && lastRow == game.getBoardHeight() - 1 && lastCol == game.getBoardWidth() - 1;
+        Rectangle lit = wholeBoard ? null : highlighted;
+        g.setColor(Cluedo.REACHABLE_COLOR);
+        for(int row = firstRow; row <= lastRow; row++){
+            for(int col = firstCol; col <= lastCol; col++){
+                Location location = game.getLocation(row, col);
+                if(!location.isOccupied() && game.isReachableThisTurn(location)){
+                    g.fillRect(originX + col * cellSize, originY + row * cellSize, cellSize, cellSize);
+                    Rectangle cell = new Rectangle(col, row, 1, 1);
+                    lit = lit == null ? cell : lit.union(cell);
+                }
+            }
+        }
+        highlighted = lit;
+
+        if(sprites == null){
+            sprites = scaleSprites();
+        }
+        int padding = scaled(Cluedo.WALL_THICKNESS);
+        for(Piece piece : game.getPieces().values()){
+            BufferedImage sprite = sprites[piece.id()];
+            Point square = piece.location().point;
+            if(sprite != null && square.x >= firstCol && square.x <= lastCol && square.y >= firstRow && square.y <= lastRow){
+                g.drawImage(sprite, originX + square.x * cellSize + padding, originY + square.y * cellSize + padding, null);
+            }
+        }
+    }
+
+    /**
+     * Scales the pieces' pictures again and repaints, e.g. once a picture
+     * that was still loading is ready.
+     */
+    public void picturesChanged(){
+        sprites = null;
+        repaint();
+    }
+
+    /**
+     * Scales every piece's picture to fit inside a square at the current
+     * cell size. Pieces without a picture get null.
+     */
+    private BufferedImage[] scaleSprites(){
+        BufferedImage[] scaled = new BufferedImage[Board.PIECE_COUNT];
+        int size = cellSize - 2 * scaled(Cluedo.WALL_THICKNESS);
+        if(size <= 0){
+            return scaled;
+        }
+        for(Piece piece : game.getPieces().values()){
+            Image image = pieceImages.apply(piece.name());
+            if(image == null){
+                continue;
+            }
+            BufferedImage sprite = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = sprite.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, size, size, null);
+            g.dispose();
+            scaled[piece.id()] = sprite;
+        }
+        return scaled;
+    }
+
+    /**
+     * Scales a size in pixels at the preferred square size to the current one.
+     */
+    private int scaled(int pixels){
+        return Math.max(1, pixels * cellSize / PREFERRED_CELL_SIZE);
+    }
+
+    /**
+     * Paints every square, its walls and the Room names at the current
+     * cell size.
+     */
+    private BufferedImage drawBackground(){
+        BufferedImage image = new BufferedImage(cellSize * game.getBoardWidth(), cellSize * game.getBoardHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        int wall = scaled(Cluedo.WALL_THICKNESS);
+        for(int row = 0; row < game.getBoardHeight(); row++){
+            for(int col = 0; col < game.getBoardWidth(); col++){
+                Location location = game.getLocation(row, col);
+                int x = col * cellSize;
+                int y = row * cellSize;
+                Room room = location.getRoom();
+                if(room != null && room.isPassageway()){
+                    g.setColor(Cluedo.PASSAGEWAY_COLOR);
+                    g.fillRect(x, y, cellSize, cellSize);
+                    g.setColor(Color.black);
+                    g.drawRect(x, y, cellSize - 1, cellSize - 1);
+                    continue;
+                }
+                g.setColor(room != null ? Cluedo.ROOM_COLOR : Cluedo.EMPTY_COLOR);
+                g.fillRect(x, y, cellSize, cellSize);
+                g.setColor(Cluedo.WALL_COLOR);
+                if(location.hasNorthWall()){
+                    g.fillRect(x, y, cellSize, wall);
+                }
+                if(location.hasSouthWall()){
+                    g.fillRect(x, y + cellSize - wall, cellSize, wall);
+                }
+                if(location.hasWestWall()){
+                    g.fillRect(x, y, wall, cellSize);
+                }
+                if(location.hasEastWall()){
+                    g.fillRect(x + cellSize - wall, y, wall, cellSize);
+                }
+            }
+        }
+        drawRoomNames(g);
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Writes the name of each Room that can be suggested in the middle of it.
+     */
+    private void drawRoomNames(Graphics2D g){
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(new Font("default", Font.BOLD, Math.max(8, 15 * cellSize / PREFERRED_CELL_SIZE)));
+        g.setColor(Color.black);
+        FontMetrics metrics = g.getFontMetrics();
+        for(String name : game.rooms){
+            int top = Integer.MAX_VALUE, left = Integer.MAX_VALUE, bottom = -1, right = -1;
+            for(Location location : game.getRoom(name).getLocations()){
+                top = Math.min(top, location.point.y);
+                left = Math.min(left, location.point.x);
+                bottom = Math.max(bottom, location.point.y);
+                right = Math.max(right, location.point.x);
+            }
+            String label = name.toUpperCase();
+            int x = (left + right + 1) * cellSize / 2 - metrics.stringWidth(label) / 2;
+            int y = (top + bottom + 1) * cellSize / 2 + metrics.getAscent() / 2;
+            g.drawString(label, Math.max(0, x), y);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Writes made-up boards of any size in the BoardLoader text format, for
+ * trying out big or unusual boards (see BoardBenchmark).
+ *
+ * The Rooms are rectangles laid out in a grid with Passageway all around
+ * them, each with a single door on a random side. The first nine Rooms
+ * get the names of the standard Cluedo Rooms, so a game can be played on
+ * the board, and any more are called "Room 10", "Room 11" and so on. The
+ * characters start spread out along the top row.
+ *
+ * Usage: java BoardGenerator width height [rooms] [seed] [output file]
+ */
+public class BoardGenerator {
+    private static final String[] STANDARD_ROOMS = {"Kitchen", "Ball Room", "Conservatory",
+            "Dining Room", "Billiard Room", "Library", "Lounge", "Hall", "Study"};
+    private static final String[] CHARACTERS = {"Miss Scarlet", "Colonel Mustard", "Mrs White",
+            "Mr Green", "Mrs Peacock", "Professor Plum"};
+    // The smallest grid cell that still fits a Room with Passageway around it
+    private static final int MIN_CELL = 3;
+
+    /**
+     * Makes a board.
+     *
+     * @param width The number of columns
+     * @param height The number of rows
+     * @param roomCount The number of Rooms, not counting the Passageway
+     * @param seed Decides where the doors go
+     * @return The board in the BoardLoader text format
+     */
+    public static String generate(int width, int height, int roomCount, long seed){
+        if(roomCount < 6){
+            throw new IllegalArgumentException("A board needs at least 6 Rooms to hold the weapons");
+        }
+        if(width < CHARACTERS.length + 1){
+            throw new IllegalArgumentException("A board needs at least " + (CHARACTERS.length + 1) + " columns");
+        }
+        // Roughly square grid cells, whatever the shape of the board
+        int gridColumns = Math.max(1, (int) Math.round(Math.sqrt((double) roomCount * width / height)));
+        int gridRows = (roomCount + gridColumns - 1) / gridColumns;
+        int cellWidth = width / gridColumns;
+        int cellHeight = height / gridRows;
+        // Every piece can end up in the same Room, which must hold them all as well as the square inside its door
+        if(cellWidth < MIN_CELL || cellHeight < MIN_CELL || (cellWidth - 2) * (cellHeight - 2) < Board.PIECE_COUNT + 1){
+            throw new IllegalArgumentException(roomCount + " Rooms do not fit on a " + width + "x" + height + " board");
+        }
+
+        String[] names = new String[roomCount];
+        for(int room = 0; room < roomCount; room++){
+            names[room] = room < STANDARD_ROOMS.length ? STANDARD_ROOMS[room] : "Room " + (room + 1);
+        }
+        // The Room of each square (-1 for the Passageway) and its walls
+        int[] roomOf = new int[width * height];
+        int[] walls = new int[width * height];
+        Arrays.fill(roomOf, -1);
+        GameRandom random = new GameRandom(seed);
+        StringBuilder out = new StringBuilder();
+        for(String name : names){
+            out.append("@room ").append(name).append('\n');
+        }
+        out.append("@room Passageway\n");
+        for(int i = 0; i < CHARACTERS.length; i++){
+            out.append("@start ").append(CHARACTERS[i]).append(",0,").append((i + 1) * width / (CHARACTERS.length + 1)).append('\n');
+        }
+
+        for(int room = 0; room < roomCount; room++){
+            int top = (room / gridColumns) * cellHeight + 1;
+            int left = (room % gridColumns) * cellWidth + 1;
+            int bottom = top + cellHeight - 3;
+            int right = left + cellWidth - 3;
+            for(int row = top; row <= bottom; row++){
+                for(int col = left; col <= right; col++){
+                    roomOf[row * width + col] = room;
+                }
+            }
+            // Wall in every edge on both sides, then knock one door through
+            for(int col = left; col <= right; col++){
+                addWall(walls, width, top * width + col, BitBoard.NORTH);
+                addWall(walls, width, bottom * width + col, BitBoard.SOUTH);
+            }
+            for(int row = top; row <= bottom; row++){
+                addWall(walls, width, row * width + left, BitBoard.WEST);
+                addWall(walls, width, row * width + right, BitBoard.EAST);
+            }
+            int side = random.nextInt(4);
+            int door;
+            if(side == BitBoard.NORTH || side == BitBoard.SOUTH){
+                door = (side == BitBoard.NORTH ? top : bottom) * width + left + random.nextInt(right - left + 1);
+            }
+            else{
+                door = (top + random.nextInt(bottom - top + 1)) * width + (side == BitBoard.WEST ? left : right);
+            }
+            removeWall(walls, width, door, side);
+
+            String label = names[room].toUpperCase();
+            // Cut the name short rather than print it over the Room's walls
+            int fits = 4 * (right - left + 1) - 3;
+            out.append("@label ").append(2 * top + 1).append(',').append(4 * left + 2).append(',')
+                    .append(label, 0, Math.min(label.length(), fits)).append('\n');
+        }
+
+        for(int row = 0; row < height; row++){
+            for(int col = 0; col < width; col++){
+                int index = row * width + col;
+                if(col > 0){
+                    out.append(',');
+                }
+                out.append(roomOf[index] < 0 ? "P" : names[roomOf[index]]);
+                if(walls[index] != 0){
+                    out.append('_');
+                    for(int direction = BitBoard.NORTH; direction <= BitBoard.WEST; direction++){
+                        if((walls[index] & (1 << direction)) != 0){
+                            out.append("NESW".charAt(direction));
+                        }
+                    }
+                }
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Puts a wall on one side of a square and the facing side of the
+     * square next to it, so it cannot be crossed either way.
+     */
+    private static void addWall(int[] walls, int width, int index, int direction){
+        walls[index] |= 1 << direction;
+        walls[neighbour(width, index, direction)] |= 1 << ((direction + 2) % 4);
+    }
+
+    private static void removeWall(int[] walls, int width, int index, int direction){
+        walls[index] &= ~(1 << direction);
+        walls[neighbour(width, index, direction)] &= ~(1 << ((direction + 2) % 4));
+    }
+
+    private static int neighbour(int width, int index, int direction){
+        switch(direction){
+            case BitBoard.NORTH: return index - width;
+            case BitBoard.EAST: return index + 1;
+            case BitBoard.SOUTH: return index + width;
+            default: return index - 1;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2){
+            System.out.println("Usage: java BoardGenerator width height [rooms] [seed] [output file]");
+            return;
+        }
+        int width = Integer.parseInt(args[0]);
+        int height = Integer.parseInt(args[1]);
+        int rooms = args.length > 2 ? Integer.parseInt(args[2]) : STANDARD_ROOMS.length;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        String fileName = args.length > 4 ? args[4] : "board_" + width + "x" + height + ".txt";
+        Files.write(Paths.get(fileName), generate(width, height, rooms, seed).getBytes(StandardCharsets.UTF_8));
+        System.out.println("Wrote a " + width + "x" + height + " board with " + rooms + " Rooms to " + fileName);
+    }
+}
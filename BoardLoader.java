@@ -0,0 +1,523 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Reads the layout of a Board (which Room each square belongs to, which
+ * sides of it have walls, where the characters start and where the Room
+ * names are printed) from either of two formats:
+ *
+ * The text format is one line per row of the Board, with the squares
+ * separated by commas. Each square is a Room name ("P" for the
+ * Passageway, "X" for no Room), optionally followed by "_" and the
+ * letters N, E, S and W for its walls, e.g. "Kitchen_NW". Every row
+ * must have the same number of squares, but there can be any number
+ * of rows and columns. Lines starting with "@" describe the rest:
+ * <pre>
+ * &#64;room Kitchen                (Rooms in id order, before the squares)
+ * &#64;start Miss Scarlet,24,7     (a character's starting row and column)
+ * &#64;label 8,9,KITCHEN           (text printed at a line and column of Board.draw())
+ * </pre>
+ * Rooms that are not declared get the next ids in the order their
+ * squares appear.
+ *
+ * The compiled format holds the same information already checked and
+ * packed into bytes, so it can be loaded without any parsing. It can
+ * be made from a text file with
+ * {@code java BoardLoader standard_board.txt}.
+ *
+ * Files are looked for in the working directory first, then on the
+ * classpath. If a compiled copy sits next to the text file and is at
+ * least as new, the compiled copy is used instead.
+ */
+public class BoardLoader {
+    /**
+     * The first four bytes of a compiled board, "CLBD".
+     */
+    public static final int MAGIC = 0x434c4244;
+    public static final int VERSION = 2;
+    /**
+     * The Room index of a square that is not in any Room.
+     */
+    public static final short NO_ROOM = -1;
+    private static final String PASSAGEWAY = "Passageway";
+
+    /**
+     * Loads a Board layout, preferring an up to date compiled copy
+     * (the same name ending in ".bin" instead of ".txt").
+     *
+     * @param fileName The name of the text file, e.g. "standard_board.txt"
+     * @return The layout
+     * @throws IOException If the file cannot be found, read or understood
+     */
+    public static Layout load(String fileName) throws IOException {
+        String compiledName = compiledName(fileName);
+        Path text = Paths.get(fileName);
+        Path compiled = Paths.get(compiledName);
+        if(Files.isRegularFile(compiled) && (!Files.isRegularFile(text)
+                || Files.getLastModifiedTime(compiled).compareTo(Files.getLastModifiedTime(text)) >= 0)){
+            return loadFile(compiled);
+        }
+        if(Files.isRegularFile(text)){
+            return loadFile(text);
+        }
+        for(String name : new String[]{compiledName, fileName}){
+            try(InputStream in = BoardLoader.class.getResourceAsStream("/" + name)){
+                if(in != null){
+                    return parse(ByteBuffer.wrap(in.readAllBytes()));
+                }
+            }
+        }
+        throw new FileNotFoundException(fileName);
+    }
+
+    /**
+     * Memory-maps a file and reads the layout in it, in either format.
+     */
+    private static Layout loadFile(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a layout in either format, telling them apart by the
+     * compiled format's magic number.
+     *
+     * @param data The contents of a board file
+     * @return The layout
+     * @throws IOException If the data is not a valid board
+     */
+    public static Layout parse(ByteBuffer data) throws IOException {
+        Layout layout;
+        if(data.remaining() >= 4 && data.getInt(data.position()) == MAGIC){
+            layout = readCompiled(data);
+        }
+        else{
+            layout = parseText(data);
+        }
+        layout.validate();
+        return layout;
+    }
+
+    /**
+     * Reads the text format in a single pass over the bytes. Room names
+     * are only turned into Strings the first time each one is seen.
+     */
+    private static Layout parseText(ByteBuffer data) throws IOException {
+        List<String> roomNames = new ArrayList<>();
+        List<byte[]> roomBytes = new ArrayList<>();
+        Map<String, int[]> starts = new LinkedHashMap<>();
+        List<Label> labels = new ArrayList<>();
+        short[] cellRooms = new short[1024];
+        byte[] cellWalls = new byte[1024];
+        int cells = 0;
+        int columns = -1;
+        int rows = 0;
+        int cellsInRow = 0;
+        int i = data.position();
+        int end = data.limit();
+        while(true){
+            // Skip the space before a square, finishing a row at each line break
+            byte b = 0;
+            while(i < end && isSpace(b = data.get(i))){
+                if(b == '\n' && cellsInRow > 0){
+                    columns = finishRow(columns, cellsInRow, rows++);
+                    cellsInRow = 0;
+                }
+                i++;
+            }
+            if(i >= end){
+                break;
+            }
+            if(b == '@' && cellsInRow == 0){
+                int lineStart = i;
+                while(i < end && data.get(i) != '\n'){
+                    i++;
+                }
+                parseDirective(decode(data, lineStart + 1, i).trim(), roomNames, roomBytes, starts, labels);
+                continue;
+            }
+            int nameStart = i;
+            while(i < end && (b = data.get(i)) != ',' && b != '_' && b != '\r' && b != '\n'){
+                i++;
+            }
+            int nameEnd = i;
+            while(nameEnd > nameStart && data.get(nameEnd - 1) == ' '){
+                nameEnd--;
+            }
+            int walls = 0;
+            if(i < end && data.get(i) == '_'){
+                i++;
+                while(i < end && (b = data.get(i)) != ',' && b != '\r' && b != '\n'){
+                    walls |= wallBit(b);
+                    i++;
+                }
+            }
+            if(i < end && data.get(i) == ','){
+                i++;
+            }
+            if(cells == cellRooms.length){
+                cellRooms = Arrays.copyOf(cellRooms, cells * 2);
+                cellWalls = Arrays.copyOf(cellWalls, cells * 2);
+            }
+            cellRooms[cells] = roomIndex(data, nameStart, nameEnd, roomNames, roomBytes);
+            cellWalls[cells] = (byte) walls;
+            cells++;
+            cellsInRow++;
+        }
+        if(cellsInRow > 0){
+            columns = finishRow(columns, cellsInRow, rows++);
+        }
+        if(rows == 0){
+            throw new IOException("The board has no squares");
+        }
+        Map<String, Integer> startSquares = new LinkedHashMap<>();
+        for(Map.Entry<String, int[]> start : starts.entrySet()){
+            int row = start.getValue()[0];
+            int column = start.getValue()[1];
+            if(row < 0 || row >= rows || column < 0 || column >= columns){
+                throw new IOException(start.getKey() + " starts off the board");
+            }
+            startSquares.put(start.getKey(), row * columns + column);
+        }
+        return new Layout(columns, rows, roomNames.toArray(new String[0]),
+                Arrays.copyOf(cellRooms, cells), Arrays.copyOf(cellWalls, cells), startSquares, labels);
+    }
+
+    /**
+     * Reads one "@" line of the text format, without the "@".
+     */
+    private static void parseDirective(String line, List<String> roomNames, List<byte[]> roomBytes,
+                                       Map<String, int[]> starts, List<Label> labels) throws IOException {
+        int space = line.indexOf(' ');
+        String keyword = space < 0 ? line : line.substring(0, space);
+        String value = space < 0 ? "" : line.substring(space + 1).trim();
+        try{
+            switch(keyword){
+                case "room":
+                    if(value.isEmpty()){
+                        throw new IOException("@room needs a name");
+                    }
+                    if(!roomNames.contains(value)){
+                        roomNames.add(value);
+                        roomBytes.add(value.getBytes(StandardCharsets.UTF_8));
+                    }
+                    break;
+                case "start": {
+                    String[] parts = value.split(",");
+                    if(parts.length != 3){
+                        throw new IOException("@start needs a name, row and column: " + line);
+                    }
+                    starts.put(parts[0].trim(), new int[]{Integer.parseInt(parts[1].trim()), Integer.parseInt(parts[2].trim())});
+                    break;
+                }
+                case "label": {
+                    String[] parts = value.split(",", 3);
+                    if(parts.length != 3){
+                        throw new IOException("@label needs a line, column and text: " + line);
+                    }
+                    labels.add(new Label(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()), parts[2].trim()));
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown board setting @" + keyword);
+            }
+        }
+        catch(NumberFormatException e){
+            throw new IOException("Bad number in @" + line, e);
+        }
+    }
+
+    private static String decode(ByteBuffer data, int start, int end){
+        byte[] bytes = new byte[end - start];
+        for(int i = 0; i < bytes.length; i++){
+            bytes[i] = data.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isSpace(byte b){
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    /**
+     * Checks a finished row is as wide as the ones before it.
+     *
+     * @return The width of the Board
+     */
+    private static int finishRow(int columns, int cellsInRow, int row) throws IOException {
+        if(columns >= 0 && columns != cellsInRow){
+            throw new IOException("Row " + row + " has " + cellsInRow + " squares, expected " + columns);
+        }
+        return cellsInRow;
+    }
+
+    private static int wallBit(byte letter) throws IOException {
+        switch(letter){
+            case 'N':
+                return 1 << BitBoard.NORTH;
+            case 'E':
+                return 1 << BitBoard.EAST;
+            case 'S':
+                return 1 << BitBoard.SOUTH;
+            case 'W':
+                return 1 << BitBoard.WEST;
+            case ' ':
+                return 0;
+            default:
+                throw new IOException("Unknown wall '" + (char) letter + "'");
+        }
+    }
+
+    /**
+     * Finds the index of the Room named by some bytes, adding it to
+     * roomNames if it has not been seen before.
+     */
+    private static short roomIndex(ByteBuffer data, int start, int end, List<String> roomNames, List<byte[]> roomBytes) throws IOException {
+        if(end - start == 1 && data.get(start) == 'X'){
+            return NO_ROOM;
+        }
+        boolean passageway = end - start == 1 && data.get(start) == 'P';
+        for(int room = 0; room < roomNames.size(); room++){
+            if(passageway ? roomNames.get(room).equals(PASSAGEWAY) : sameName(data, start, end, roomBytes.get(room))){
+                return (short) room;
+            }
+        }
+        if(end == start){
+            throw new IOException("A square has no Room");
+        }
+        if(roomNames.size() == Short.MAX_VALUE){
+            throw new IOException("A board can have at most " + Short.MAX_VALUE + " Rooms");
+        }
+        String name = passageway ? PASSAGEWAY : decode(data, start, end);
+        roomNames.add(name);
+        roomBytes.add(name.getBytes(StandardCharsets.UTF_8));
+        return (short) (roomNames.size() - 1);
+    }
+
+    private static boolean sameName(ByteBuffer data, int start, int end, byte[] name){
+        if(name.length != end - start){
+            return false;
+        }
+        for(int i = 0; i < name.length; i++){
+            if(name[i] != data.get(start + i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the compiled format: the magic number, version, width and
+     * height, the Room names, the Room index (two bytes) of every square,
+     * the walls (one byte) of every square, the start squares and the
+     * labels.
+     */
+    private static Layout readCompiled(ByteBuffer data) throws IOException {
+        try{
+            data.getInt();
+            int version = data.getShort();
+            if(version != VERSION){
+                throw new IOException("Compiled board is version " + version + ", expected " + VERSION);
+            }
+            int width = data.getInt();
+            int height = data.getInt();
+            if(width <= 0 || height <= 0){
+                throw new IOException("Compiled board is " + width + "x" + height);
+            }
+            String[] roomNames = new String[data.getShort()];
+            for(int room = 0; room < roomNames.length; room++){
+                roomNames[room] = readString(data);
+            }
+            short[] cellRooms = new short[Math.multiplyExact(width, height)];
+            byte[] cellWalls = new byte[cellRooms.length];
+            data.asShortBuffer().get(cellRooms);
+            data.position(data.position() + cellRooms.length * 2);
+            data.get(cellWalls);
+            Map<String, Integer> startSquares = new LinkedHashMap<>();
+            for(int start = data.getInt(); start > 0; start--){
+                startSquares.put(readString(data), data.getInt());
+            }
+            List<Label> labels = new ArrayList<>();
+            for(int label = data.getInt(); label > 0; label--){
+                labels.add(new Label(data.getInt(), data.getInt(), readString(data)));
+            }
+            return new Layout(width, height, roomNames, cellRooms, cellWalls, startSquares, labels);
+        }
+        catch(RuntimeException e){
+            // e.g. BufferUnderflowException or a negative size from a truncated file
+            throw new IOException("Compiled board is damaged", e);
+        }
+    }
+
+    private static String readString(ByteBuffer data){
+        byte[] bytes = new byte[data.getShort() & 0xffff];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream data, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        data.writeShort(bytes.length);
+        data.write(bytes);
+    }
+
+    /**
+     * Writes a layout in the compiled format.
+     *
+     * @param layout The layout to write
+     * @param out Where to write it
+     * @throws IOException If out cannot be written to
+     */
+    public static void writeCompiled(Layout layout, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeInt(layout.width);
+        data.writeInt(layout.height);
+        data.writeShort(layout.roomNames.length);
+        for(String name : layout.roomNames){
+            writeString(data, name);
+        }
+        for(short room : layout.cellRooms){
+            data.writeShort(room);
+        }
+        data.write(layout.cellWalls);
+        data.writeInt(layout.startSquares.size());
+        for(Map.Entry<String, Integer> start : layout.startSquares.entrySet()){
+            writeString(data, start.getKey());
+            data.writeInt(start.getValue());
+        }
+        data.writeInt(layout.labels.size());
+        for(Label label : layout.labels){
+            data.writeInt(label.line);
+            data.writeInt(label.column);
+            writeString(data, label.text);
+        }
+        data.flush();
+    }
+
+    /**
+     * @return The name of the compiled copy of a text board file
+     */
+    public static String compiledName(String fileName){
+        return (fileName.endsWith(".txt") ? fileName.substring(0, fileName.length() - 4) : fileName) + ".bin";
+    }
+
+    /**
+     * Compiles a text board file into a ".bin" file next to it.
+     *
+     * Usage: java BoardLoader [board file]
+     */
+    public static void main(String[] args) throws IOException {
+        String fileName = args.length > 0 ? args[0] : "standard_board.txt";
+        Layout layout = loadFile(Paths.get(fileName));
+        try(OutputStream out = Files.newOutputStream(Paths.get(compiledName(fileName)))){
+            writeCompiled(layout, out);
+        }
+        System.out.println("Compiled " + layout.width + "x" + layout.height + " board to " + compiledName(fileName));
+    }
+
+    /**
+     * Text printed over the outline of the Board, e.g. a Room's name.
+     */
+    public static class Label {
+        public final int line;
+        public final int column;
+        public final String text;
+
+        public Label(int line, int column, String text){
+            this.line = line;
+            this.column = column;
+            this.text = text;
+        }
+    }
+
+    /**
+     * The Room and walls of every square of a Board, indexed by
+     * row * width + column, and the Board's other settings.
+     */
+    public static class Layout {
+        public final int width;
+        public final int height;
+        final String[] roomNames;
+        final short[] cellRooms;
+        // The walls of each square, one bit per side at 1 << BitBoard.NORTH etc.
+        final byte[] cellWalls;
+        // The square index each character starts on, by character name
+        final Map<String, Integer> startSquares;
+        final List<Label> labels;
+
+        Layout(int width, int height, String[] roomNames, short[] cellRooms, byte[] cellWalls,
+               Map<String, Integer> startSquares, List<Label> labels){
+            this.width = width;
+            this.height = height;
+            this.roomNames = roomNames;
+            this.cellRooms = cellRooms;
+            this.cellWalls = cellWalls;
+            this.startSquares = Collections.unmodifiableMap(startSquares);
+            this.labels = Collections.unmodifiableList(labels);
+        }
+
+        /**
+         * Checks every square, start and label makes sense, so the rest
+         * of the game never has to.
+         */
+        void validate() throws IOException {
+            for(int cell = 0; cell < cellRooms.length; cell++){
+                if(cellRooms[cell] < NO_ROOM || cellRooms[cell] >= roomNames.length || (cellWalls[cell] & ~0xf) != 0){
+                    throw new IOException("Bad square at row " + cell / width + ", column " + cell % width);
+                }
+            }
+            for(Map.Entry<String, Integer> start : startSquares.entrySet()){
+                int square = start.getValue();
+                if(square < 0 || square >= cellRooms.length || cellRooms[square] == NO_ROOM){
+                    throw new IOException(start.getKey() + " does not start in a Room or the Passageway");
+                }
+            }
+            for(Label label : labels){
+                if(label.line < 0 || label.line > 2 * height || label.column < 0
+                        || label.column + label.text.length() > 4 * width + 1){
+                    throw new IOException("The label \"" + label.text + "\" does not fit on the board");
+                }
+            }
+        }
+
+        /**
+         * @return The names of the Rooms, in id order
+         */
+        public List<String> roomNames(){
+            return Collections.unmodifiableList(Arrays.asList(roomNames));
+        }
+
+        /**
+         * @return The name of the Room a square is in, or null if it is not in one
+         */
+        public String roomName(int row, int column){
+            short room = cellRooms[row * width + column];
+            return room == NO_ROOM ? null : roomNames[room];
+        }
+
+        /**
+         * @return The walls of a square, one bit per side at 1 << BitBoard.NORTH etc.
+         */
+        public int walls(int row, int column){
+            return cellWalls[row * width + column];
+        }
+
+        /**
+         * @return The square index each character starts on, by character name
+         */
+        public Map<String, Integer> startSquares(){
+            return startSquares;
+        }
+
+        public List<Label> labels(){
+            return labels;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Everything about a Board that never changes once it is loaded: the
+ * walls, which Room each square belongs to, the entrances and exits of
+ * every Room, the walking distances between them and the printed
+ * outline of the walls.
+ *
+ * It is worked out once per board file and then shared, read-only, by
+ * every Board built from that file, so each Game only has to keep track
+ * of where its own pieces are. Squares are numbered by their BitBoard
+ * index (row * width + column) and Rooms by their id.
+ *
+ * Boards can be any size. Results that grow with the square of the
+ * Board's size (the distances into each Room, the reachability
+ * footprints and the printed outline) are only worked out when first
+ * needed, or not kept at all for very large Boards.
+ */
+public class BoardTopology {
+    private static final Map<String, BoardTopology> loaded = new HashMap<>();
+    /**
+     * The most longs the reachability footprints may take up. Larger
+     * Boards do without them, see ReachabilityCache.
+     */
+    static final long FOOTPRINT_BUDGET = 1 << 21;
+
+    final int width;
+    final int height;
+    // Room names, indexed by Room id
+    final String[] roomNames;
+    final int passagewayId;
+    // The Room id of every square, or -1 if it is not in a Room
+    final int[] roomOf;
+    // The walls and Passageway of every square. Nothing is ever occupied.
+    final BitBoard bits;
+    // The squares, entrances and exits of each Room, indexed by Room id,
+    // in the order they are found going row by row across the Board
+    final int[][] roomSquares;
+    final int[][] roomEntrances;
+    final int[][] roomExits;
+    // The square each character starts on, by character name
+    final Map<String, Integer> startSquares;
+    private final List<BoardLoader.Label> labels;
+    // Steps to walk into each Room, ignoring pieces, worked out the first
+    // time the Room is asked about. For each Room id: the steps from every
+    // square, then the steps from every Room. -1 means unreachable.
+    private final AtomicReferenceArray<int[][]> distances;
+    // Every square reachable from each square in each number of steps up to
+    // ReachabilityCache.MAX_ROLL, ignoring pieces, at [square * (MAX_ROLL + 1) + steps],
+    // or null if the Board is too big to keep them
+    final long[][] footprints;
+    // The walls and Room labels as printed by Board.draw(), one line after another
+    private char[] outline;
+    // Where each Room label starts in the outline and how long it is, in pairs
+    private int[] labelSpans;
+    final int lineLength;
+
+    /**
+     * Gets the topology of a board file, loading it the first time it
+     * is asked for and sharing it after that.
+     *
+     * @param fileName The board file, see BoardLoader
+     * @return The topology
+     * @throws IOException If the board file cannot be loaded
+     */
+    public static synchronized BoardTopology load(String fileName) throws IOException {
+        BoardTopology topology = loaded.get(fileName);
+        if(topology == null){
+            topology = new BoardTopology(BoardLoader.load(fileName));
+            loaded.put(fileName, topology);
+        }
+        return topology;
+    }
+
+    /**
+     * Works out the topology of a Board layout.
+     *
+     * @param layout The Board's squares, walls and settings
+     */
+    public BoardTopology(BoardLoader.Layout layout){
+        this.width = layout.width;
+        this.height = layout.height;
+        this.roomNames = layout.roomNames.clone();
+        this.passagewayId = Arrays.asList(roomNames).indexOf("Passageway");
+        this.startSquares = layout.startSquares;
+        this.labels = layout.labels;
+        this.roomOf = new int[width * height];
+        this.bits = new BitBoard(width, height);
+        int[] squareCounts = new int[roomNames.length];
+        for(int row = 0; row < height; row++){
+            for(int col = 0; col < width; col++){
+                int index = bits.index(row, col);
+                roomOf[index] = layout.cellRooms[index];
+                for(int direction = BitBoard.NORTH; direction <= BitBoard.WEST; direction++){
+                    if((layout.walls(row, col) & (1 << direction)) != 0){
+                        bits.setWall(index, direction);
+                    }
+                }
+                if(roomOf[index] >= 0){
+                    squareCounts[roomOf[index]]++;
+                    if(roomOf[index] == passagewayId){
+                        bits.setPassageway(index);
+                    }
+                }
+            }
+        }
+        this.roomSquares = new int[roomNames.length][];
+        this.roomEntrances = new int[roomNames.length][];
+        this.roomExits = new int[roomNames.length][];
+        for(int room = 0; room < roomNames.length; room++){
+            roomSquares[room] = new int[squareCounts[room]];
+            squareCounts[room] = 0;
+        }
+        for(int index = 0; index < roomOf.length; index++){
+            if(roomOf[index] >= 0){
+                roomSquares[roomOf[index]][squareCounts[roomOf[index]]++] = index;
+            }
+        }
+        for(int room = 0; room < roomNames.length; room++){
+            calculateEntrancesAndExits(room);
+        }
+        this.distances = new AtomicReferenceArray<>(roomNames.length);
+        if((long) width * height * (ReachabilityCache.MAX_ROLL + 1) * bits.words <= FOOTPRINT_BUDGET){
+            this.footprints = new long[width * height * (ReachabilityCache.MAX_ROLL + 1)][];
+            for(int index = 0; index < width * height; index++){
+                for(int steps = 0; steps <= ReachabilityCache.MAX_ROLL; steps++){
+                    long[] footprint = new long[bits.words];
+                    bits.reachable(index, steps, footprint, true);
+                    footprints[index * (ReachabilityCache.MAX_ROLL + 1) + steps] = footprint;
+                }
+            }
+        }
+        else{
+            this.footprints = null;
+        }
+        this.lineLength = 4 * width + 2;
+    }
+
+    /**
+     * @param roomName The name of a Room
+     * @return The Room's id, or -1 if the Board has no such Room
+     */
+    public int roomId(String roomName){
+        return Arrays.asList(roomNames).indexOf(roomName);
+    }
+
+    /**
+     * Gets how many steps it takes to walk into a Room from every
+     * square, ignoring pieces. Entering the Room counts as one step.
+     *
+     * @param roomId The id of the Room to get to
+     * @return The steps from each square, by square index: 0 inside
+     *         the Room, -1 if it cannot be reached. Must not be changed.
+     */
+    int[] stepsToRoom(int roomId){
+        return roomDistances(roomId)[0];
+    }
+
+    /**
+     * Gets how many steps it takes to walk out of every Room and into
+     * one Room, ignoring pieces.
+     *
+     * @param roomId The id of the Room to get to
+     * @return The steps from each Room, by Room id, or -1 if the Room
+     *         cannot be reached. Must not be changed.
+     */
+    int[] stepsBetweenRooms(int roomId){
+        return roomDistances(roomId)[1];
+    }
+
+    private int[][] roomDistances(int roomId){
+        int[][] found = distances.get(roomId);
+        if(found == null){
+            // Two threads may both work it out, but they get the same answer
+            found = calculateRoomDistances(roomId);
+            distances.set(roomId, found);
+        }
+        return found;
+    }
+
+    private static int[] toArray(Collection<Integer> values){
+        int[] array = new int[values.size()];
+        int i = 0;
+        for(int value : values){
+            array[i++] = value;
+        }
+        return array;
+    }
+
+    /**
+     * Finds the squares of a Room that can be walked into from the
+     * Passageway (its entrances) and the Passageway squares they can be
+     * walked into from (its exits).
+     */
+    private void calculateEntrancesAndExits(int room){
+        Set<Integer> entrances = new LinkedHashSet<>();
+        Set<Integer> exits = new LinkedHashSet<>();
+        for(int index : roomSquares[room]){
+            int row = index / width;
+            int col = index % width;
+            if(!bits.hasWall(index, BitBoard.NORTH) && row > 0 && roomOf[index - width] == passagewayId){
+                entrances.add(index);
+                exits.add(index - width);
+            }
+            if(!bits.hasWall(index, BitBoard.EAST) && col < width - 1 && roomOf[index + 1] == passagewayId){
+                entrances.add(index);
+                exits.add(index + 1);
+            }
+            if(!bits.hasWall(index, BitBoard.SOUTH) && row < height - 1 && roomOf[index + width] == passagewayId){
+                entrances.add(index);
+                exits.add(index + width);
+            }
+            if(!bits.hasWall(index, BitBoard.WEST) && col > 0 && roomOf[index - 1] == passagewayId){
+                entrances.add(index);
+                exits.add(index - 1);
+            }
+        }
+        roomEntrances[room] = toArray(entrances);
+        roomExits[room] = toArray(exits);
+    }
+
+    /**
+     * Works out how many steps it takes to walk into a Room from every
+     * Passageway square, and from every other Room, ignoring pieces.
+     */
+    private int[][] calculateRoomDistances(int id){
+        int[] fromSquares = new int[width * height];
+        int[] fromRooms = new int[roomNames.length];
+        Arrays.fill(fromSquares, -1);
+        for(int index : roomSquares[id]){
+            fromSquares[index] = 0;
+        }
+        if(id != passagewayId){
+            // Walk backwards from the exits: a square is one step further
+            // away than any neighbour it is allowed to step onto
+            int[] queue = new int[width * height];
+            int head = 0;
+            int tail = 0;
+            for(int exit : roomExits[id]){
+                fromSquares[exit] = 1;
+                queue[tail++] = exit;
+            }
+            while(head < tail){
+                int index = queue[head++];
+                int next = fromSquares[index] + 1;
+                int row = index / width;
+                int col = index % width;
+                if(row > 0){
+                    tail = relaxDistance(index - width, BitBoard.SOUTH, next, fromSquares, queue, tail);
+                }
+                if(row < height - 1){
+                    tail = relaxDistance(index + width, BitBoard.NORTH, next, fromSquares, queue, tail);
+                }
+                if(col > 0){
+                    tail = relaxDistance(index - 1, BitBoard.EAST, next, fromSquares, queue, tail);
+                }
+                if(col < width - 1){
+                    tail = relaxDistance(index + 1, BitBoard.WEST, next, fromSquares, queue, tail);
+                }
+            }
+        }
+        // Leaving a Room takes one step onto an exit, then the walk from there
+        for(int from = 0; from < roomNames.length; from++){
+            int best = from == id ? 0 : -1;
+            for(int exit : roomExits[from]){
+                int steps = fromSquares[exit];
+                if(steps >= 0 && (best < 0 || steps + 1 < best)){
+                    best = steps + 1;
+                }
+            }
+            fromRooms[from] = best;
+        }
+        return new int[][]{fromSquares, fromRooms};
+    }
+
+    /**
+     * Helper for calculateRoomDistances(), records the distance to a
+     * Room for a Passageway square that can step towards it.
+     *
+     * @return The new end of the queue
+     */
+    private int relaxDistance(int index, int directionToward, int steps, int[] fromSquares, int[] queue, int tail){
+        if(bits.isPassageway(index) && !bits.hasWall(index, directionToward) && fromSquares[index] < 0){
+            fromSquares[index] = steps;
+            queue[tail++] = index;
+        }
+        return tail;
+    }
+
+    /**
+     * Gets the walls and Room labels as printed by Board.draw(), one
+     * line after another, working them out the first time.
+     *
+     * @return The outline. Must not be changed.
+     */
+    synchronized char[] outline(){
+        if(outline == null){
+            outline = buildOutline();
+        }
+        return outline;
+    }
+
+    /**
+     * Interprets the wall data for every square to construct a visual
+     * representation of the Rooms out of "+" and "#" characters, then
+     * adds the Room names.
+     */
+    private char[] buildOutline(){
+        StringBuilder[] printableBoard = new StringBuilder[height * 2 + 1];
+        for(int row = 0; row < height; row++){
+            int row1 = 2*row;
+            int row2 = row1 + 1;
+            int row3 = row2 + 1;
+            printableBoard[row1] = new StringBuilder();
+            for(int col = 0; col < width; col++){
+                int index = bits.index(row, col);
+                boolean north = bits.hasWall(index, BitBoard.NORTH);
+                printableBoard[row1].append(wallIsAdjacent(index) || north || bits.hasWall(index, BitBoard.WEST) ? "+" : " ");
+                printableBoard[row1].append(north ? "###" : "   ");
+                if(col == width - 1){
+                    printableBoard[row1].append(wallIsAdjacent(index) || north || bits.hasWall(index, BitBoard.EAST) ? "+" : " ");
+                }
+            }
+            printableBoard[row2] = new StringBuilder();
+            for(int col = 0; col < width; col++){
+                int index = bits.index(row, col);
+                printableBoard[row2].append(bits.hasWall(index, BitBoard.WEST) ? "#   " : "    ");
+                if(col == width - 1){
+                    printableBoard[row2].append(bits.hasWall(index, BitBoard.EAST) ? "#" : " ");
+                }
+            }
+            if(row == height - 1){
+                printableBoard[row3] = new StringBuilder();
+                for(int col = 0; col < width; col++){
+                    int index = bits.index(row, col);
+                    boolean south = bits.hasWall(index, BitBoard.SOUTH);
+                    printableBoard[row3].append(south || bits.hasWall(index, BitBoard.WEST) ? "+" : " ");
+                    printableBoard[row3].append(south ? "###" : "   ");
+                    if(col == width - 1){
+                        printableBoard[row3].append(wallIsAdjacent(index) || south || bits.hasWall(index, BitBoard.EAST) ? "+" : " ");
+                    }
+                }
+            }
+        }
+        labelSpans = new int[labels.size() * 2];
+        int span = 0;
+        for(BoardLoader.Label label : labels){
+            printableBoard[label.line].replace(label.column, label.column + label.text.length(), label.text);
+            labelSpans[span++] = label.line * lineLength + label.column;
+            labelSpans[span++] = Math.min(label.text.length(), lineLength - 1 - label.column);
+        }
+        char[] lines = new char[printableBoard.length * lineLength];
+        for(int row = 0; row < printableBoard.length; row++){
+            printableBoard[row].getChars(0, lineLength - 1, lines, row * lineLength);
+            lines[row * lineLength + lineLength - 1] = '\n';
+        }
+        return lines;
+    }
+
+    /**
+     * Writes the Room labels of the outline back over a copy of it, so
+     * that a Player standing under a label is covered by it, as it was
+     * when the labels were added after the Players.
+     *
+     * @param frame A copy of the outline with pieces drawn on it
+     */
+    void drawLabels(char[] frame){
+        char[] outline = outline();
+        for(int span = 0; span < labelSpans.length; span += 2){
+            System.arraycopy(outline, labelSpans[span], frame, labelSpans[span], labelSpans[span + 1]);
+        }
+    }
+
+    /**
+     * Helper function for buildOutline(), determines
+     * if the corner of an upper-left square needs to be drawn.
+     *
+     * @return True if the square is in the Passageway or the upper-left
+     *         square has a south or east Wall
+     */
+    private boolean wallIsAdjacent(int index){
+        if(roomOf[index] == passagewayId){
+            return true;
+        }
+        int x = index % width;
+        int y = index / width;
+        if(x > 0 && y > 0){
+            int upperLeft = index - width - 1;
+            return bits.hasWall(upperLeft, BitBoard.SOUTH) || bits.hasWall(upperLeft, BitBoard.EAST);
+        }
+        return false;
+    }
+}
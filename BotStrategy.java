@@ -0,0 +1,166 @@
+import java.util.*;
+
+/**
+ * A simple bot for one seat. It keeps a DeductionEngine fed with its
+ * own hand and every pass and refutation at the table, walks the
+ * shortest way to a room that could still be the murder room,
+ * suggests cards that could still be part of the murder, refutes with
+ * the first card it can, and accuses once the engine has narrowed each
+ * type down to one card.
+ */
+public class BotStrategy implements PlayerStrategy {
+	/**
+	 * The most single-square moves a bot will try in one turn, so a bot
+	 * boxed in by other pieces cannot wander back and forth forever.
+	 */
+	private static final int MAX_STEPS_PER_TURN = 64;
+
+	private Game game;
+	private GameRandom rand;
+	private DeductionEngine known;
+
+	@Override
+	public void gameStarted(Game game, Player player) {
+		this.game = game;
+		this.rand = game.splitRandom();
+		Collection<Player> players = game.getPlayers().values();
+		int[] handSizes = new int[players.size()];
+		for (Player other : players) { handSizes[game.getSeat(other)] = other.getHand().size(); }
+		known = new DeductionEngine(game.getAllCards(), handSizes);
+		for (Card card : player.getHand().values()) { known.holds(game.getSeat(player), card); }
+	}
+
+	/**
+	 * @return what this bot knows about who holds which card
+	 */
+	public DeductionEngine getKnowledge() { return known; }
+
+	// ----------------------- DECISIONS ---------------------------
+
+	/**
+	 * Move a player one square at a time towards a room that could be
+	 * the murder room, until they run out of moves, enter a room, or get stuck.
+	 */
+	@Override
+	public void move(Player player) {
+		Room target = chooseTargetRoom(player);
+		// If the room can be reached this turn, walk straight in (the distance ignores other pieces, so check it first as it is cheaper)
+		Location inside = target.getRandomRoomLocation();
+		if (inside != null && distanceTo(game.getPlayerLocation(player), target) <= player.getRemainingMoves() && player.move(inside)) { return; }
+		Location previous = null;
+		List<Location> options = new ArrayList<Location>();
+		for (int step = 0; step < MAX_STEPS_PER_TURN && player.getRemainingMoves() > 0; step++) {
+			Location current = game.getPlayerLocation(player);
+			options.clear();
+			if (game.checkPlayerInRoom(player)) {
+				options.addAll(game.getPlayerRoom(player).getUnoccupiedExits());
+			} else {
+				addNeighbours(current, options);
+			}
+			// Shuffle first so that equally good squares are picked at random
+			rand.shuffle(options);
+			options.sort(Comparator.comparingInt((Location loc) -> distanceTo(loc, target)));
+
+			boolean moved = false;
+			for (Location option : options) {
+				if (option != previous && player.move(option)) { moved = true; break; }
+			}
+			if (!moved) { return; }
+			previous = current;
+			if (game.checkPlayerInRoom(player)) { return; }
+		}
+	}
+
+	@Override
+	public CardTuple chooseSuggestion(Player player, String roomName) {
+		return new CardTuple(pickCandidate(game.characters), pickCandidate(game.weapons), game.getCard(roomName));
+	}
+
+	@Override
+	public Card chooseRefutation(Player refuter, Player suggester, CardTuple suggestion, Set<Card> refuteOptions) {
+		for (Card card : refuteOptions) { return card; }
+		return null;
+	}
+
+	@Override
+	public CardTuple chooseAccusation(Player player) {
+		if (!known.knowsSolution()) { return null; }
+		return new CardTuple(known.solutionCard(Card.CardType.CHARACTER), known.solutionCard(Card.CardType.WEAPON), known.solutionCard(Card.CardType.ROOM));
+	}
+
+	/**
+	 * Choose a room for a player to walk to, preferring rooms that
+	 * could still be the murder room, and never the room they are in.
+	 */
+	private Room chooseTargetRoom(Player player) {
+		Room currentRoom = game.checkPlayerInRoom(player) ? game.getPlayerRoom(player) : null;
+		List<Room> options = new ArrayList<Room>();
+		for (String name : game.rooms) {
+			Room room = game.getRoom(name);
+			if (room != currentRoom && known.couldBeSolution(game.getCard(name))) { options.add(room); }
+		}
+		if (options.isEmpty()) {
+			for (String name : game.rooms) {
+				Room room = game.getRoom(name);
+				if (room != currentRoom) { options.add(room); }
+			}
+		}
+		return options.get(rand.nextInt(options.size()));
+	}
+
+	/**
+	 * Get how many steps it takes to reach a room from a square, ignoring
+	 * other pieces. Squares in other rooms, and squares that cannot reach
+	 * the room, are Integer.MAX_VALUE so they are tried last.
+	 */
+	private int distanceTo(Location location, Room room) {
+		if (location.getRoom() == room) { return 0; }
+		if (location.getRoom() == null || !location.getRoom().isPassageway()) { return Integer.MAX_VALUE; }
+		int steps = game.getStepsToRoom(location, room);
+		return steps < 0 ? Integer.MAX_VALUE : steps;
+	}
+
+	/**
+	 * Add the squares next to a location that are part of a room or the passageway.
+	 */
+	private void addNeighbours(Location location, List<Location> options) {
+		int row = location.point.y, col = location.point.x;
+		if (row > 0) { addIfInRoom(game.getLocation(row-1, col), options); }
+		if (row < game.getBoardHeight()-1) { addIfInRoom(game.getLocation(row+1, col), options); }
+		if (col > 0) { addIfInRoom(game.getLocation(row, col-1), options); }
+		if (col < game.getBoardWidth()-1) { addIfInRoom(game.getLocation(row, col+1), options); }
+	}
+
+	private void addIfInRoom(Location location, List<Location> options) {
+		if (location.getRoom() != null) { options.add(location); }
+	}
+
+	/**
+	 * Pick a random card that could still be part of the murder.
+	 */
+	private Card pickCandidate(List<String> cardNames) {
+		List<Card> options = new ArrayList<Card>();
+		for (String name : cardNames) {
+			Card card = game.getCard(name);
+			if (known.couldBeSolution(card)) { options.add(card); }
+		}
+		return options.get(rand.nextInt(options.size()));
+	}
+
+	// ------------------------ EVENTS -----------------------------
+
+	@Override
+	public void suggestionPassed(Player suggester, Player passer, CardTuple suggestion) {
+		known.passed(game.getSeat(passer), suggestion);
+	}
+
+	@Override
+	public void suggestionRefuted(Player suggester, Player refuter, CardTuple suggestion) {
+		known.refuted(game.getSeat(refuter), suggestion);
+	}
+
+	@Override
+	public void cardShown(Player refuter, Card card, CardTuple suggestion) {
+		known.holds(game.getSeat(refuter), card);
+	}
+}
@@ -4,16 +4,41 @@
 public class Card {
 	private final String name;
 	private final CardType type;
+	private final int id;
+	private final int index;
 	
 	public static enum CardType { CHARACTER, WEAPON, ROOM; }
 	
 	public Card(String name, CardType type) {
+		this(name, type, -1);
+	}
+	
+	/**
+	 * @param name is the name shown on the card
+	 * @param type is what the card stands for
+	 * @param id is the card's position in Game.getAllCards(), so cards can index arrays and bitmasks
+	 */
+	public Card(String name, CardType type, int id) {
+		this(name, type, id, -1);
+	}
+	
+	/**
+	 * @param name is the name shown on the card
+	 * @param type is what the card stands for
+	 * @param id is the card's position in Game.getAllCards(), so cards can index arrays and bitmasks
+	 * @param index is the card's position among the cards of its type, see CardTuple.index()
+	 */
+	public Card(String name, CardType type, int id, int index) {
 		this.name = name;
 		this.type = type;
+		this.id = id;
+		this.index = index;
 	}
 	
 	public String getName() { return name; }
 	public CardType getType() { return type; }
+	public int getId() { return id; }
+	public int getIndex() { return index; }
 	
 	public String toString() { return "name: " + name + ", type: " + type; }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every card of a game, numbered densely so cards and murders can index
+ * arrays instead of being looked up by name.
+ *
+ * Card ids go characters first, then weapons, then rooms, in the order
+ * they are listed. Every murder (CardTuple) also has an index from 0 to
+ * tupleCount()-1: for the standard game that is 0 to 323, so murders can
+ * be stored as a single int (see CardTuple.index()).
+ *
+ * Games whose boards have the same rooms share one registry, and so the
+ * same Card instances, however many games are played.
+ */
+public class CardRegistry {
+	/**
+	 * The names of all characters from Cluedo. Order goes clockwise starting from Miss Scarlet.
+	 */
+	public static final List<String> CHARACTERS = Collections.unmodifiableList(Arrays.asList("Miss Scarlet", "Colonel Mustard", "Mrs White", "Mr Green", "Mrs Peacock", "Professor Plum"));
+	/**
+	 * The names of all weapons from Cluedo.
+	 */
+	public static final List<String> WEAPONS = Collections.unmodifiableList(Arrays.asList("Candlestick", "Dagger", "Lead Pipe", "Revolver", "Rope", "Spanner"));
+
+	private static final Map<List<String>, CardRegistry> SHARED = new ConcurrentHashMap<List<String>, CardRegistry>();
+
+	private final List<Card> cards;
+	private final Card[] characters, weapons, rooms;
+	private final Map<String, Card> byName = new HashMap<String, Card>();
+	private final Map<String, Card> byLowerCaseName = new HashMap<String, Card>();
+	// Every murder, made once, by index
+	private final CardTuple[] tuples;
+
+	/**
+	 * Get the registry for a set of rooms, which is made the first time
+	 * it is asked for and shared from then on.
+	 *
+	 * @param roomNames is the names of the rooms that can be suggested, in the order of the board file
+	 * @return the registry
+	 */
+	public static CardRegistry forRooms(List<String> roomNames) {
+		return SHARED.computeIfAbsent(Collections.unmodifiableList(new ArrayList<String>(roomNames)), CardRegistry::new);
+	}
+
+	private CardRegistry(List<String> roomNames) {
+		List<Card> all = new ArrayList<Card>();
+		characters = addCards(all, CHARACTERS, Card.CardType.CHARACTER);
+		weapons = addCards(all, WEAPONS, Card.CardType.WEAPON);
+		rooms = addCards(all, roomNames, Card.CardType.ROOM);
+		cards = Collections.unmodifiableList(all);
+		for (Card card : all) {
+			byName.put(card.getName(), card);
+			byLowerCaseName.put(card.getName().toLowerCase(), card);
+		}
+		tuples = new CardTuple[characters.length * weapons.length * rooms.length];
+		for (Card room : rooms) {
+			for (Card character : characters) {
+				for (Card weapon : weapons) {
+					CardTuple tuple = new CardTuple(character, weapon, room);
+					tuples[tuple.index()] = tuple;
+				}
+			}
+		}
+	}
+
+	private Card[] addCards(List<Card> all, List<String> names, Card.CardType type) {
+		Card[] added = new Card[names.size()];
+		for (int i = 0; i < added.length; i++) {
+			added[i] = new Card(names.get(i), type, all.size(), i);
+			all.add(added[i]);
+		}
+		return added;
+	}
+
+	/**
+	 * @return every card, where each card is at the position of its id
+	 */
+	public List<Card> cards() { return cards; }
+
+	/**
+	 * @param id is the id of the card
+	 * @return the card with that id
+	 */
+	public Card get(int id) { return cards.get(id); }
+
+	/**
+	 * Get a card by its name, ignoring case if there is no exact match.
+	 *
+	 * @param name is the name of the card
+	 * @return the card, or null if there is no card with that name
+	 */
+	public Card get(String name) {
+		Card card = byName.get(name);
+		return card != null ? card : byLowerCaseName.get(name.toLowerCase());
+	}
+
+	/**
+	 * @param type is the type of card
+	 * @param index is the card's position among the cards of its type
+	 * @return the card
+	 */
+	public Card get(Card.CardType type, int index) {
+		switch (type) {
+			case CHARACTER: return characters[index];
+			case WEAPON: return weapons[index];
+			default: return rooms[index];
+		}
+	}
+
+	/**
+	 * @param type is the type of card
+	 * @return how many cards there are of that type
+	 */
+	public int count(Card.CardType type) {
+		switch (type) {
+			case CHARACTER: return characters.length;
+			case WEAPON: return weapons.length;
+			default: return rooms.length;
+		}
+	}
+
+	/**
+	 * @return how many different murders there are, 324 for the standard game
+	 */
+	public int tupleCount() { return tuples.length; }
+
+	/**
+	 * @param index is a murder's index, see CardTuple.index()
+	 * @return the murder, which is the same CardTuple every time
+	 */
+	public CardTuple tuple(int index) { return tuples[index]; }
+}
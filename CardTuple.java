@@ -6,15 +6,57 @@
  */
 public class CardTuple {
 	private Card charCard, weapCard, roomCard;
+	/**
+	 * The cards as bits, by card id, for cards with ids below 64.
+	 */
+	private long mask;
+	private boolean fitsMask = true;
+	private final int index;
 	
 	public CardTuple(Card first, Card second, Card third) {
-		for (int i = 0; i < 3; i++) {
-			if (i == 0) { setCard(first); }
-			if (i == 1) { setCard(second); }
-			if (i == 2) { setCard(third); }
-		}
+		setCard(first);
+		setCard(second);
+		setCard(third);
+		if (charCard.getIndex() < 0 || weapCard.getIndex() < 0 || roomCard.getIndex() < 0) { index = -1; }
+		else { index = index(charCard.getIndex(), weapCard.getIndex(), roomCard.getIndex()); }
+	}
+	
+	/**
+	 * Get the number of this tuple among every possible murder, from 0 to
+	 * CardRegistry.tupleCount()-1 (0 to 323 for the standard game), so
+	 * murders can be stored as ints and index arrays. See CardRegistry.tuple().
+	 * 
+	 * @return the index, or -1 if a card was not made by a CardRegistry
+	 */
+	public int index() { return index; }
+	
+	/**
+	 * Work out a murder's index from the positions of its cards among the cards of their type.
+	 * 
+	 * @param character is the position of the character card
+	 * @param weapon is the position of the weapon card
+	 * @param room is the position of the room card
+	 * @return the index, see index()
+	 */
+	public static int index(int character, int weapon, int room) {
+		return (room * CardRegistry.CHARACTERS.size() + character) * CardRegistry.WEAPONS.size() + weapon;
 	}
 	
+	/**
+	 * Get the cards as bits, where bit n is set if the card with id n
+	 * is in this tuple, so a hand stored the same way can be checked
+	 * against it with one AND. Only cards with ids from 0 to 63 are
+	 * included, see fitsMask().
+	 * 
+	 * @return the bits of the cards in this tuple
+	 */
+	public long mask() { return mask; }
+	
+	/**
+	 * @return whether every card in this tuple is in mask()
+	 */
+	public boolean fitsMask() { return fitsMask; }
+	
 	public Card characterCard() { return charCard; }
 	
 	public Card weaponCard() { return weapCard; }
@@ -27,20 +69,28 @@ public class CardTuple {
 	 * @param card is the card to set
 	 */
 	private void setCard(Card card) {
-		if (card.getType() == Card.CardType.CHARACTER) { 
-			if (charCard != null) { throw new IllegalArgumentException("Duplicate card types found. CardTuple only accepts 1 card of each type. Cards type: " + card.getType()); }
-			charCard = card;
-		}
-		if (card.getType() == Card.CardType.WEAPON) { 
-			if (weapCard != null) { throw new IllegalArgumentException("Duplicate card types found. CardTuple only accepts 1 card of each type. Cards type: " + card.getType()); }
-			weapCard = card;
-		}
-		if (card.getType() == Card.CardType.ROOM) {
-			if (roomCard != null) { throw new IllegalArgumentException("Duplicate card types found. CardTuple only accepts 1 card of each type. Cards type: " + card.getType()); }
-			roomCard = card;
+		if (card.getId() >= 0 && card.getId() < Long.SIZE) { mask |= 1L << card.getId(); }
+		else { fitsMask = false; }
+		switch (card.getType()) {
+			case CHARACTER:
+				if (charCard != null) { throw duplicate(card); }
+				charCard = card;
+				break;
+			case WEAPON:
+				if (weapCard != null) { throw duplicate(card); }
+				weapCard = card;
+				break;
+			case ROOM:
+				if (roomCard != null) { throw duplicate(card); }
+				roomCard = card;
+				break;
 		}
 	}
 	
+	private static IllegalArgumentException duplicate(Card card) {
+		return new IllegalArgumentException("Duplicate card types found. CardTuple only accepts 1 card of each type. Cards type: " + card.getType());
+	}
+	
 	public String toString() {
 		return charCard.getName() + " with the " + weapCard.getName() + " in the " + roomCard.getName();
 	}
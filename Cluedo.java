@@ -1,11 +1,7 @@
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
-import javax.imageio.ImageIO;
 import javax.swing.*;
-import javax.swing.border.Border;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -15,12 +11,13 @@ import java.awt.event.ComponentListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 
-public class Cluedo extends JFrame {
+public class Cluedo extends JFrame implements GameListener {
 
     public static final Color PASSAGEWAY_COLOR = new Color(232,176,96);
     public static final Color ROOM_COLOR = new Color(201,191,192);
     public static final Color EMPTY_COLOR = new Color(79,156,100);
     public static final Color WALL_COLOR = new Color(87, 47, 32);
+    public static final Color REACHABLE_COLOR = new Color(255, 255, 255, 90);
 
     public static final int WALL_THICKNESS = 8;
     private final int CARD_WIDTH = 85;
@@ -28,9 +25,29 @@ public class Cluedo extends JFrame {
     private final int DIE_SIZE = 50;
     private final int MAX_CARD_COUNT = 6;
 
-    public static Map<String, Image> pieceImages = new HashMap<String, Image>();
-    public static Map<String, Image> cardImages = new HashMap<String, Image>();
-    public static Map<Integer, Image> diceImages = new HashMap<Integer, Image>();
+    // The picture files in the resources directory for each piece, card and die face
+    private static final Map<String, String> PIECE_FILES = new HashMap<String, String>();
+    private static final Map<String, String> CARD_FILES = new HashMap<String, String>();
+    private static final String[] DICE_FILES = {null, "dice_one.png", "dice_two.png", "dice_three.png",
+            "dice_four.png", "dice_five.png", "dice_six.png"};
+    private static final String CARD_SLOT_FILE = "card_slot.png";
+    static {
+        String[][] pieces = {{"Spanner", "spanner"}, {"Revolver", "revolver"}, {"Rope", "rope"},
+                {"Lead Pipe", "lead_pipe"}, {"Candlestick", "candlestick"}, {"Dagger", "dagger"},
+                {"Colonel Mustard", "mustard"}, {"Miss Scarlet", "scarlet"}, {"Professor Plum", "plum"},
+                {"Mrs Peacock", "peacock"}, {"Mr Green", "green"}, {"Mrs White", "white"}};
+        for (String[] piece : pieces) {
+            PIECE_FILES.put(piece[0], piece[1] + ".png");
+            CARD_FILES.put(piece[0], piece[1] + "_card.png");
+        }
+        String[][] rooms = {{"Kitchen", "kitchen"}, {"Ball Room", "ball_room"}, {"Conservatory", "conservatory"},
+                {"Dining Room", "dining_room"}, {"Billiard Room", "billiard_room"}, {"Library", "library"},
+                {"Lounge", "lounge"}, {"Hall", "hall"}, {"Study", "study"}};
+        for (String[] room : rooms) { CARD_FILES.put(room[0], room[1] + "_card.png"); }
+    }
+
+    // Loads every picture in the background and keeps the scaled copies shown on screen
+    private final AssetCache assets = new AssetCache("resources", AssetCache.DEFAULT_CAPACITY);
 
     private Game game;
     private JTextArea displayMessage;
@@ -42,11 +59,18 @@ public class Cluedo extends JFrame {
     private JButton suggestButton;
     private JButton accuseButton;
     private JButton endTurnButton;
-    private ImageIcon emptyCardSlotImage;
+    // The file name of the picture each label is waiting to show, so a picture that finishes loading late does not replace a newer one
+    private static final String PICTURE_KEY = "picture";
     private final String[] okOption = {"Okay"};
 
     Cluedo(){
         super("Cluedo");
+        // Start decoding the pictures while the player answers the first questions
+        ArrayList<String> files = new ArrayList<String>(PIECE_FILES.values());
+        files.addAll(CARD_FILES.values());
+        files.addAll(Arrays.asList(DICE_FILES).subList(1, DICE_FILES.length));
+        files.add(CARD_SLOT_FILE);
+        assets.preload(files);
     }
 
     public Game getGame() { return game; }
@@ -99,10 +123,6 @@ public class Cluedo extends JFrame {
         setLocationRelativeTo(null);
         getContentPane().setLayout(new BorderLayout());
 
-        loadPieceImages();
-        loadCardImages();
-        loadDiceImages();
-
         setJMenuBar(createMenuBar());
         getContentPane().add(createBoardCanvas(game), BorderLayout.EAST);
         getContentPane().add(createLeftPanel(), BorderLayout.CENTER);
@@ -119,76 +139,38 @@ public class Cluedo extends JFrame {
         setVisible(true);
     }
 
-    private void loadPieceImages(){
-        try{
-            // Load Weapon Images
-            pieceImages.put("Spanner", ImageIO.read(new File("resources/spanner.png")));
-            pieceImages.put("Revolver" , ImageIO.read(new File("resources/revolver.png")));
-            pieceImages.put("Rope" , ImageIO.read(new File("resources/rope.png")));
-            pieceImages.put("Lead Pipe" , ImageIO.read(new File("resources/lead_pipe.png")));
-            pieceImages.put("Candlestick", ImageIO.read(new File("resources/candlestick.png")));
-            pieceImages.put("Dagger", ImageIO.read(new File("resources/dagger.png")));
-
-            // Load Player Images
-            pieceImages.put("Colonel Mustard", ImageIO.read(new File("resources/mustard.png")));
-            pieceImages.put("Miss Scarlet", ImageIO.read(new File("resources/scarlet.png")));
-            pieceImages.put("Professor Plum", ImageIO.read(new File("resources/plum.png")));
-            pieceImages.put("Miss Peacock", ImageIO.read(new File("resources/peacock.png")));
-            pieceImages.put("Mr Green", ImageIO.read(new File("resources/green.png")));
-            pieceImages.put("Mrs White", ImageIO.read(new File("resources/white.png")));
-        } catch(IOException e) {
-            System.out.println("Could not load piece images from the resources directory" + e);
-        }
+    /**
+     * Make a label showing a card's picture at the size cards are shown.
+     */
+    private JLabel cardLabel(Card card) {
+        return pictureLabel(CARD_FILES.get(card.getName()), CARD_WIDTH, CARD_HEIGHT);
     }
 
-    private void loadCardImages() {
-        try {
-            // Load Character Cards
-            cardImages.put("Miss Scarlet", ImageIO.read(new File("resources/scarlet_card.png")));
-            cardImages.put("Colonel Mustard", ImageIO.read(new File("resources/mustard_card.png")));
-            cardImages.put("Mrs White", ImageIO.read(new File("resources/white_card.png")));
-            cardImages.put("Mr Green", ImageIO.read(new File("resources/green_card.png")));
-            cardImages.put("Mrs Peacock", ImageIO.read(new File("resources/peacock_card.png")));
-            cardImages.put("Professor Plum", ImageIO.read(new File("resources/plum_card.png")));
-
-            // Load Weapon Cards
-            cardImages.put("Candlestick", ImageIO.read(new File("resources/candlestick_card.png")));
-            cardImages.put("Dagger", ImageIO.read(new File("resources/dagger_card.png")));
-            cardImages.put("Lead Pipe", ImageIO.read(new File("resources/lead_pipe_card.png")));
-            cardImages.put("Rope", ImageIO.read(new File("resources/rope_card.png")));
-            cardImages.put("Revolver", ImageIO.read(new File("resources/revolver_card.png")));
-            cardImages.put("Spanner", ImageIO.read(new File("resources/spanner_card.png")));
-
-            // Load Room Cards
-            cardImages.put("Kitchen", ImageIO.read(new File("resources/kitchen_card.png")));
-            cardImages.put("Ball Room", ImageIO.read(new File("resources/ball_room_card.png")));
-            cardImages.put("Conservatory", ImageIO.read(new File("resources/conservatory_card.png")));
-            cardImages.put("Dining Room", ImageIO.read(new File("resources/dining_room_card.png")));
-            cardImages.put("Billiard Room", ImageIO.read(new File("resources/billiard_room_card.png")));
-            cardImages.put("Library", ImageIO.read(new File("resources/library_card.png")));
-            cardImages.put("Lounge", ImageIO.read(new File("resources/lounge_card.png")));
-            cardImages.put("Hall", ImageIO.read(new File("resources/hall_card.png")));
-            cardImages.put("Study", ImageIO.read(new File("resources/study_card.png")));
-
-            // Empty Card Slot Image
-            Image cardSlotImage = ImageIO.read(new File("resources/card_slot.png"));
-            emptyCardSlotImage = new ImageIcon(cardSlotImage.getScaledInstance(CARD_WIDTH, CARD_HEIGHT, Image.SCALE_SMOOTH));
-        } catch(IOException e) {
-            System.out.println("Could not load card images from the resources directory - " + e);
-        }
+    private JLabel pictureLabel(String fileName, int width, int height) {
+        JLabel label = new JLabel();
+        showPicture(label, fileName, width, height);
+        return label;
     }
 
-    private void loadDiceImages() {
-        try {
-            diceImages.put(1, ImageIO.read(new File("resources/dice_one.png")));
-            diceImages.put(2, ImageIO.read(new File("resources/dice_two.png")));
-            diceImages.put(3, ImageIO.read(new File("resources/dice_three.png")));
-            diceImages.put(4, ImageIO.read(new File("resources/dice_four.png")));
-            diceImages.put(5, ImageIO.read(new File("resources/dice_five.png")));
-            diceImages.put(6, ImageIO.read(new File("resources/dice_six.png")));
-        } catch(IOException e) {
-            System.out.println("Could not load dice images from the resources directory - " + e);
+    /**
+     * Show a picture on a label without waiting for it to load. Until it
+     * has, the label shows a blank of the same size, which is swapped for
+     * the picture when it finishes loading.
+     */
+    private void showPicture(JLabel label, String fileName, int width, int height) {
+        label.putClientProperty(PICTURE_KEY, fileName);
+        ImageIcon icon = assets.loadedIcon(fileName, width, height);
+        if (icon != null) {
+            label.setIcon(icon);
+            return;
         }
+        label.setIcon(new ImageIcon(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)));
+        // Cards of rooms on other boards have no picture to wait for
+        if (fileName == null) { return; }
+        assets.whenLoaded(fileName, () -> {
+            ImageIcon loaded = assets.loadedIcon(fileName, width, height);
+            if (loaded != null && fileName.equals(label.getClientProperty(PICTURE_KEY))) { label.setIcon(loaded); }
+        });
     }
 
     private JMenuBar createMenuBar(){
@@ -337,165 +319,11 @@ public class Cluedo extends JFrame {
         return cardPanel;
     }
 
-    private JPanel createBoardCanvas(Game game){
-        JPanel board = new EntireBoard();
-        board.setLayout(new GridLayout(25,24,0,0));
-        for (int row = 0; row < 25; row += 1) {
-            for (int col = 0; col < 24; col += 1) {
-                board.add(cell(row,col,game));
-            }
-        }
-        return board;
-    }
-
-    class EntireBoard extends JPanel{
-        @Override
-        public void paint(Graphics g){
-            super.paint(g);
-            Graphics2D g2d = (Graphics2D) g;
-            g2d.setRenderingHint(
-                    RenderingHints.KEY_ANTIALIASING,
-                    RenderingHints.VALUE_ANTIALIAS_ON
-            );
-
-            int height = getHeight();
-            int width = getWidth();
-            g.setFont(new Font("default", Font.BOLD, 15));
-
-            g2d.drawString("KITCHEN", (int)(width*0.08), (int)(height * 0.16));
-            g2d.drawString("BALL ROOM", (int)(width*0.44), (int)(height * 0.2));
-            g2d.drawString("CONSERVATORY", (int)(width*0.795), (int)(height * 0.14));
-            g2d.drawString("DINING ROOM", (int)(width*0.09), (int)(height * 0.52));
-            g2d.drawString("BILLIARD ROOM", (int)(width*0.775), (int)(height * 0.43));
-            g2d.drawString("LIBRARY", (int)(width*0.81), (int)(height * 0.67));
-            g2d.drawString("LOUNGE", (int)(width*0.1), (int)(height * 0.89));
-            g2d.drawString("HALL", (int)(width*0.475), (int)(height * 0.87));
-            g2d.drawString("STUDY", (int)(width*0.82), (int)(height * 0.925));
-        }
-    }
-
-    class BoardSquare extends JPanel{
-
-        Location cell;
-        Game game;
-
-        BoardSquare(Location location, Game game){
-            super();
-            this.cell = location;
-            this.game = game;
-            addMouseListener(new MouseAdapter() {
-                @Override
-                public void mouseReleased(MouseEvent e) {
-                    if(game.movePlayerByMouse(location)){
-                        getTopLevelAncestor().repaint();
-                    }
-                }
-            });
-        }
-
-        private void drawPiece(Graphics g){
-            Graphics2D g2d = (Graphics2D) g;
-
-            if(cell.occupied){
-                int padding = Cluedo.WALL_THICKNESS;
-                int height = this.getHeight() - padding*2;
-                int width = this.getWidth() - padding*2;
-
-                for(Map.Entry<String, Piece> p : game.getPieces().entrySet()){
-                    if(p.getValue().equals(cell.piece)){
-                        Piece current = p.getValue();
-                        switch(current.icon()){
-                            case "c":
-                                g2d.drawImage(Cluedo.pieceImages.get("Candlestick"), padding, padding, width, height,this);
-                                this.setToolTipText("Candlestick");
-                                break;
-                            case "d":
-                                g2d.drawImage(Cluedo.pieceImages.get("Dagger"), padding, padding, width, height,this);
-                                this.setToolTipText("Dagger");
-                                break;
-                            case "l":
-                                g2d.drawImage(Cluedo.pieceImages.get("Lead Pipe"), padding, padding, width, height,this);
-                                this.setToolTipText("Lead Pipe");
-                                break;
-                            case "g":
-                                g2d.drawImage(Cluedo.pieceImages.get("Revolver"), padding, padding, width, height,this);
-                                this.setToolTipText("Revolver");
-                                break;
-                            case "r":
-                                g2d.drawImage(Cluedo.pieceImages.get("Rope"), padding, padding, width, height,this);
-                                this.setToolTipText("Rope");
-                                break;
-                            case "s":
-                                g2d.drawImage(Cluedo.pieceImages.get("Spanner"), padding, padding, width, height,this);
-                                this.setToolTipText("Spanner");
-                                break;
-                            case "P":
-                                g2d.drawImage(Cluedo.pieceImages.get("Miss Peacock"), padding, padding, width, height,this);
-                                this.setToolTipText("Miss Peacock");
-                                break;
-                            case "L":
-                                g2d.drawImage(Cluedo.pieceImages.get("Professor Plum"), padding, padding, width, height,this);
-                                this.setToolTipText("Professor Plum");
-                                break;
-                            case "M":
-                                g2d.drawImage(Cluedo.pieceImages.get("Colonel Mustard"), padding, padding, width, height,this);
-                                this.setToolTipText("Colonel Mustard");
-                                break;
-                            case "W":
-                                g2d.drawImage(Cluedo.pieceImages.get("Mrs White"), padding, padding, width, height,this);
-                                this.setToolTipText("Mrs White");
-                                break;
-                            case "G":
-                                g2d.drawImage(Cluedo.pieceImages.get("Mr Green"), padding, padding, width, height,this);
-                                this.setToolTipText("Mr Green");
-                                break;
-                            case "S":
-                                g2d.drawImage(Cluedo.pieceImages.get("Miss Scarlet"), padding, padding, width, height,this);
-                                this.setToolTipText("Miss Scarlet");
-                                break;
-                        }
-                    }
-                }
-            }
-        }
-
-        @Override
-        public void paintComponent(Graphics g){
-            super.paintComponent(g);
-            drawPiece(g);
-        }
-    }
-
-    public JPanel cell(int row, int col, Game g) {
-        Location current = g.getLocation(row,col);
-        return new BoardSquare(current, game) {
-            {
-                this.setLayout(null);
-
-                Color color;
-
-                if (current.getRoom() != null && current.getRoom().getName().equals("Passageway")) {
-                    color = PASSAGEWAY_COLOR;
-                    Border blackLine = BorderFactory.createLineBorder(Color.black);
-                    this.setBorder(blackLine);
-                } else {
-                    color = current.getRoom() != null ? ROOM_COLOR : EMPTY_COLOR;
-                    int wallThickness = 8;
-                    int north = current.northWall ? wallThickness : 0;
-                    int east = current.eastWall ? wallThickness : 0;
-                    int west = current.westWall ? wallThickness : 0;
-                    int south = current.southWall ? wallThickness : 0;
-                    Border wall = BorderFactory.createMatteBorder(north, west, south, east, WALL_COLOR);
-                    this.setBorder(wall);
-                }
-                this.setBackground(color);
-            }
-
-            @Override
-            public Dimension getPreferredSize() {
-                return new Dimension(32, 32);
-            }
-        };
+    private JComponent createBoardCanvas(Game game){
+        // Pieces are drawn as they finish loading rather than waited for
+        BoardCanvas canvas = new BoardCanvas(game, name -> assets.loadedImage(PIECE_FILES.get(name)));
+        for (String fileName : PIECE_FILES.values()) { assets.whenLoaded(fileName, canvas::picturesChanged); }
+        return canvas;
     }
 
     // ---------- FOR CHANGING COMPONENTS ON SCREEN DURING GAME -----------------
@@ -530,6 +358,7 @@ public class Cluedo extends JFrame {
         JPanel enterNameLabelPanel = new JPanel();
         JPanel characterPanel = new JPanel();
         JTextField playerNameField = new JTextField();
+        JCheckBox botCheckBox = new JCheckBox("Played by the computer");
         ButtonGroup characterButtonGroup = new ButtonGroup();
         Set<JRadioButton> characterSet = new HashSet<JRadioButton>();
 
@@ -549,19 +378,24 @@ public class Cluedo extends JFrame {
         enterNameLabelPanel.add(new JLabel("Enter your name:"), BorderLayout.WEST);
         playerDetailsPanel.add(enterNameLabelPanel);
         playerDetailsPanel.add(playerNameField);
+        playerDetailsPanel.add(botCheckBox);
 
         // Ask players for their name and the character they pick
         String playerName;
         String characterName;
         boolean playerCreationSuccessful;
         JRadioButton selectedCharacterButton;
+        boolean personPlaying = false;
         for (int i = 1; i < numOfPlayers+1; i++) {
             playerCreationSuccessful = false;
             selectedCharacterButton = null;
+            // Someone has to be at the table, so the last player is a person if everyone else is a bot
+            botCheckBox.setEnabled(personPlaying || i < numOfPlayers);
             while (!playerCreationSuccessful) {
                 playerName = null;
                 characterName = null;
                 playerNameField.setText("");
+                botCheckBox.setSelected(false);
                 characterButtonGroup.clearSelection();
                 while (playerName == null || characterName == null) {
                     JOptionPane.showOptionDialog(null, playerDetailsPanel, "Player "+i+" Character Selection", JOptionPane.PLAIN_MESSAGE, JOptionPane.QUESTION_MESSAGE, null, okOption, okOption[0]);
@@ -574,8 +408,9 @@ public class Cluedo extends JFrame {
                     }
                 }
                 // Send the details of a player to the model (Game class)
-                playerCreationSuccessful = game.addPlayer(i, playerName, characterName);
+                playerCreationSuccessful = game.addPlayer(i, playerName, characterName, botCheckBox.isSelected() ? new BotStrategy() : null);
             }
+            personPlaying |= !botCheckBox.isSelected();
             selectedCharacterButton.setEnabled(false);
         }
     }
@@ -662,7 +497,7 @@ public class Cluedo extends JFrame {
 
             for(Card card : refuteOptions) {
                 refutingOptions.addItem(card.getName());
-                refutingOptionsPanel.add(new JLabel(new ImageIcon(cardImages.get(card.getName()).getScaledInstance(CARD_WIDTH, CARD_HEIGHT, Image.SCALE_SMOOTH))));
+                refutingOptionsPanel.add(cardLabel(card));
             }
 
             JPanel labelPanel2 = new JPanel(new BorderLayout());
@@ -689,12 +524,9 @@ public class Cluedo extends JFrame {
     }
 
     public void showCardTuple(JPanel panel, CardTuple tuple) {
-        ImageIcon cardIcon = new ImageIcon(cardImages.get(tuple.characterCard().getName()).getScaledInstance(CARD_WIDTH, CARD_HEIGHT, Image.SCALE_SMOOTH));
-        panel.add(new JLabel(cardIcon));
-        cardIcon = new ImageIcon(cardImages.get(tuple.weaponCard().getName()).getScaledInstance(CARD_WIDTH, CARD_HEIGHT, Image.SCALE_SMOOTH));
-        panel.add(new JLabel(cardIcon));
-        cardIcon = new ImageIcon(cardImages.get(tuple.roomCard().getName()).getScaledInstance(CARD_WIDTH, CARD_HEIGHT, Image.SCALE_SMOOTH));
-        panel.add(new JLabel(cardIcon));
+        panel.add(cardLabel(tuple.characterCard()));
+        panel.add(cardLabel(tuple.weaponCard()));
+        panel.add(cardLabel(tuple.roomCard()));
     }
 
     /**
@@ -717,10 +549,8 @@ public class Cluedo extends JFrame {
      * @param secondDieValue
      */
     public void showDiceRoll(int firstDieValue, int secondDieValue) {
-        ImageIcon dieIcon = new ImageIcon(diceImages.get(firstDieValue).getScaledInstance(DIE_SIZE, DIE_SIZE, Image.SCALE_SMOOTH));
-        this.die1.setIcon(dieIcon);
-        dieIcon = new ImageIcon(diceImages.get(secondDieValue).getScaledInstance(DIE_SIZE, DIE_SIZE, Image.SCALE_SMOOTH));
-        this.die2.setIcon(dieIcon);
+        showPicture(die1, DICE_FILES[firstDieValue], DIE_SIZE, DIE_SIZE);
+        showPicture(die2, DICE_FILES[secondDieValue], DIE_SIZE, DIE_SIZE);
         this.repaint();
     }
 
@@ -732,7 +562,7 @@ public class Cluedo extends JFrame {
             // Someone refuted the suggestion
             labelPanel1.add(new JLabel("Your suggestion was refuted by the " + refuteCard.getName() + " card:"), BorderLayout.WEST);
             refutationResultPanel.add(labelPanel1);
-            refutationResultPanel.add(new JLabel(new ImageIcon(cardImages.get(refuteCard.getName()).getScaledInstance(CARD_WIDTH, CARD_HEIGHT, Image.SCALE_SMOOTH))));
+            refutationResultPanel.add(cardLabel(refuteCard));
         } else {
             // The suggestion was not refuted
             labelPanel1.add(new JLabel("Your suggestion was not refuted by anyone!"));
@@ -792,8 +622,7 @@ public class Cluedo extends JFrame {
     public void showPlayerHand(Player player) {
         currentPlayerHand.removeAll();
         for (Map.Entry<String,Card> card : player.getHand().entrySet()) {
-            ImageIcon cardIcon = new ImageIcon(cardImages.get(card.getValue().getName()).getScaledInstance(CARD_WIDTH, CARD_HEIGHT, Image.SCALE_SMOOTH));
-            currentPlayerHand.add(new JLabel(cardIcon));
+            currentPlayerHand.add(cardLabel(card.getValue()));
         }
         addEmptyCardSlotsToHand(MAX_CARD_COUNT-player.getHand().size());
         this.repaint();
@@ -805,7 +634,7 @@ public class Cluedo extends JFrame {
      */
     public void addEmptyCardSlotsToHand(int numOfSlotsToAdd) {
         if (numOfSlotsToAdd > 0) {
-            for (int i = 0; i < numOfSlotsToAdd; i++) { currentPlayerHand.add(new JLabel(emptyCardSlotImage)); }
+            for (int i = 0; i < numOfSlotsToAdd; i++) { currentPlayerHand.add(pictureLabel(CARD_SLOT_FILE, CARD_WIDTH, CARD_HEIGHT)); }
             this.repaint();
         }
     }
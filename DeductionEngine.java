@@ -0,0 +1,325 @@
+import java.util.*;
+
+/**
+ * Works out who may be holding each card, from one player's point of
+ * view, as suggestions go around the table.
+ *
+ * Every card has a bitmask of its possible holders: one bit for each
+ * seat (in turn order, as Game.getSeat() numbers them) and one more for
+ * the murder envelope (see getSolutionHolder()). Events only ever clear bits, and each
+ * change is followed through straight away:
+ * - a card with one possible holder is known to be theirs,
+ * - a player holding as many cards as their hand size holds nothing else,
+ * - a player with only as many possible cards as their hand size holds all of them,
+ * - the envelope holds exactly one card of each type,
+ * - a player who refuted holds at least one of the three suggested cards.
+ *
+ * Only the cards and players touched by an event are looked at, so an
+ * event costs a handful of array updates. Events that cannot all be
+ * true throw an IllegalStateException.
+ */
+public class DeductionEngine {
+	private final Card[] cards;
+	private final int playerCount;
+	// The holder number of the murder envelope, one more than the last seat
+	private final int solutionHolder;
+	// The possible holders of each card, by card id
+	private final int[] possible;
+	private final int[] handSize;
+	// For each holder, how many cards they may hold, and how many they are known to hold
+	private final int[] possibleCount;
+	private final int[] knownCount;
+	// Holders whose cards are all known, so nothing more can be learnt about them
+	private final boolean[] complete;
+	// For each card type, how many of its cards may be in the envelope
+	private final int[] solutionCandidates = new int[Card.CardType.values().length];
+	private final Card[] solution = new Card[Card.CardType.values().length];
+
+	// "Player clausePlayer[i] holds at least one of clauseCards[i]", and which clauses mention each card
+	private int[] clausePlayer = new int[16];
+	private int[][] clauseCards = new int[16][];
+	private boolean[] clauseDone = new boolean[16];
+	private int clauseCount;
+	private final int[][] clausesOf;
+	private final int[] clausesOfCount;
+
+	// How many events have been taken in, so samplers can tell when to catch up
+	private int version;
+
+	// Cards changed by the current event that still need following through
+	private final int[] pending;
+	private final boolean[] isPending;
+	private int pendingCount;
+
+	/**
+	 * @param cards is every card in the game, where each card's position is its id
+	 * @param handSizes is how many cards the player in each seat holds
+	 */
+	public DeductionEngine(List<Card> cards, int[] handSizes) {
+		this.cards = cards.toArray(new Card[0]);
+		for (int id = 0; id < this.cards.length; id++) {
+			if (this.cards[id].getId() != id) { throw new IllegalArgumentException("Card " + this.cards[id].getName() + " is not at the position of its id"); }
+		}
+		this.playerCount = handSizes.length;
+		if (playerCount >= Integer.SIZE - 1) { throw new IllegalArgumentException("Too many players: " + playerCount); }
+		this.solutionHolder = playerCount;
+		this.handSize = Arrays.copyOf(handSizes, playerCount + 1);
+		this.handSize[solutionHolder] = Card.CardType.values().length;
+		int dealt = 0;
+		for (int size : handSizes) { dealt += size; }
+		if (dealt + handSize[solutionHolder] != this.cards.length) { throw new IllegalArgumentException("Hands of " + dealt + " cards do not add up to " + this.cards.length + " cards"); }
+
+		possible = new int[this.cards.length];
+		Arrays.fill(possible, (1 << (playerCount + 1)) - 1);
+		possibleCount = new int[playerCount + 1];
+		Arrays.fill(possibleCount, this.cards.length);
+		knownCount = new int[playerCount + 1];
+		complete = new boolean[playerCount + 1];
+		for (Card card : this.cards) { solutionCandidates[card.getType().ordinal()]++; }
+		clausesOf = new int[this.cards.length][];
+		clausesOfCount = new int[this.cards.length];
+		pending = new int[this.cards.length];
+		isPending = new boolean[this.cards.length];
+
+		// Players dealt no cards can be ruled out straight away
+		for (int player = 0; player < playerCount; player++) { checkHolder(player); }
+		propagate();
+	}
+
+	// ------------------------ EVENTS -----------------------------
+
+	/**
+	 * A player is known to hold a card, e.g. it is in our hand or was shown to us.
+	 *
+	 * @param player is the seat of the player
+	 * @param card is the card they hold
+	 */
+	public void holds(int player, Card card) {
+		version++;
+		restrict(card.getId(), 1 << player);
+		propagate();
+	}
+
+	/**
+	 * A player is known not to hold a card.
+	 *
+	 * @param player is the seat of the player
+	 * @param card is the card they do not hold
+	 */
+	public void doesNotHold(int player, Card card) {
+		version++;
+		restrict(card.getId(), possible[card.getId()] & ~(1 << player));
+		propagate();
+	}
+
+	/**
+	 * A player could not refute a suggestion, so holds none of its cards.
+	 *
+	 * @param player is the seat of the player who passed
+	 * @param suggestion is the suggestion they could not refute
+	 */
+	public void passed(int player, CardTuple suggestion) {
+		version++;
+		int bit = 1 << player;
+		restrict(suggestion.characterCard().getId(), possible[suggestion.characterCard().getId()] & ~bit);
+		restrict(suggestion.weaponCard().getId(), possible[suggestion.weaponCard().getId()] & ~bit);
+		restrict(suggestion.roomCard().getId(), possible[suggestion.roomCard().getId()] & ~bit);
+		propagate();
+	}
+
+	/**
+	 * A player refuted a suggestion without us seeing the card, so holds
+	 * at least one of its cards.
+	 *
+	 * @param player is the seat of the player who refuted
+	 * @param suggestion is the suggestion they refuted
+	 */
+	public void refuted(int player, CardTuple suggestion) {
+		version++;
+		int[] ids = { suggestion.characterCard().getId(), suggestion.weaponCard().getId(), suggestion.roomCard().getId() };
+		if (clauseCount == clausePlayer.length) {
+			clausePlayer = Arrays.copyOf(clausePlayer, clauseCount * 2);
+			clauseCards = Arrays.copyOf(clauseCards, clauseCount * 2);
+			clauseDone = Arrays.copyOf(clauseDone, clauseCount * 2);
+		}
+		int clause = clauseCount++;
+		clausePlayer[clause] = player;
+		clauseCards[clause] = ids;
+		for (int id : ids) {
+			int[] list = clausesOf[id];
+			if (list == null) { list = clausesOf[id] = new int[4]; }
+			else if (clausesOfCount[id] == list.length) { list = clausesOf[id] = Arrays.copyOf(list, list.length * 2); }
+			list[clausesOfCount[id]++] = clause;
+		}
+		checkClause(clause);
+		propagate();
+	}
+
+	// ----------------------- QUERIES -----------------------------
+
+	/**
+	 * @return the holder number that stands for the murder envelope in possibleHolders() and holder()
+	 */
+	public int getSolutionHolder() { return solutionHolder; }
+
+	/**
+	 * @param card is the card to look up
+	 * @return a bitmask of who may hold the card, with bit getSolutionHolder() for the murder envelope
+	 */
+	public int possibleHolders(Card card) { return possible[card.getId()]; }
+
+	/**
+	 * @param card is the card to look up
+	 * @return the seat or getSolutionHolder() known to hold the card, or -1 if there is more than one possibility
+	 */
+	public int holder(Card card) {
+		int mask = possible[card.getId()];
+		return Integer.bitCount(mask) == 1 ? Integer.numberOfTrailingZeros(mask) : -1;
+	}
+
+	/**
+	 * @param card is the card to look up
+	 * @return whether the card is known to be in some player's hand
+	 */
+	public boolean isHeldByPlayer(Card card) {
+		int mask = possible[card.getId()];
+		return Integer.bitCount(mask) == 1 && mask != 1 << solutionHolder;
+	}
+
+	/**
+	 * @param card is the card to look up
+	 * @return whether the card may still be part of the murder
+	 */
+	public boolean couldBeSolution(Card card) { return (possible[card.getId()] & (1 << solutionHolder)) != 0; }
+
+	/**
+	 * @param type is the type of card
+	 * @return the card of that type known to be in the murder envelope, or null if it is not known yet
+	 */
+	public Card solutionCard(Card.CardType type) { return solution[type.ordinal()]; }
+
+	/**
+	 * @return whether all three murder cards are known
+	 */
+	public boolean knowsSolution() {
+		for (Card card : solution) { if (card == null) { return false; } }
+		return true;
+	}
+
+	// ------------------ FOR SolutionEstimator ---------------------
+
+	int version() { return version; }
+	int cardCount() { return cards.length; }
+	Card card(int id) { return cards[id]; }
+	int holderCount() { return playerCount + 1; }
+	int handSize(int holder) { return handSize[holder]; }
+	int possibleMask(int id) { return possible[id]; }
+	int clauseCount() { return clauseCount; }
+	int clausePlayer(int clause) { return clausePlayer[clause]; }
+	int[] clauseCards(int clause) { return clauseCards[clause]; }
+	int clauseCountOf(int id) { return clausesOfCount[id]; }
+	int clauseOf(int id, int i) { return clausesOf[id][i]; }
+
+	// --------------------- PROPAGATION ---------------------------
+
+	/**
+	 * Narrow down the possible holders of a card, keeping the counts up to date.
+	 */
+	private void restrict(int id, int mask) {
+		int old = possible[id];
+		mask &= old;
+		if (mask == old) { return; }
+		if (mask == 0) { throw new IllegalStateException("Nobody can hold " + cards[id].getName()); }
+		possible[id] = mask;
+		for (int removed = old & ~mask; removed != 0; removed &= removed - 1) {
+			possibleCount[Integer.numberOfTrailingZeros(removed)]--;
+		}
+		if ((old & ~mask & (1 << solutionHolder)) != 0) { solutionCandidates[cards[id].getType().ordinal()]--; }
+		if (Integer.bitCount(mask) == 1) { knownCount[Integer.numberOfTrailingZeros(mask)]++; }
+		if (!isPending[id]) {
+			isPending[id] = true;
+			pending[pendingCount++] = id;
+		}
+	}
+
+	/**
+	 * Follow through every card changed since the last event, until nothing else changes.
+	 */
+	private void propagate() {
+		while (pendingCount > 0) {
+			int id = pending[--pendingCount];
+			isPending[id] = false;
+			int mask = possible[id];
+			if (Integer.bitCount(mask) == 1 && Integer.numberOfTrailingZeros(mask) == solutionHolder) {
+				solve(cards[id]);
+			}
+			for (int i = 0; i < clausesOfCount[id]; i++) {
+				if (!clauseDone[clausesOf[id][i]]) { checkClause(clausesOf[id][i]); }
+			}
+			for (int removed = ~mask & ((1 << (playerCount + 1)) - 1); removed != 0; removed &= removed - 1) {
+				checkHolder(Integer.numberOfTrailingZeros(removed));
+			}
+			if (Integer.bitCount(mask) == 1) { checkHolder(Integer.numberOfTrailingZeros(mask)); }
+			int type = cards[id].getType().ordinal();
+			if (solutionCandidates[type] == 0) { throw new IllegalStateException("No " + cards[id].getType() + " card can be part of the murder"); }
+			if (solution[type] == null && solutionCandidates[type] == 1) {
+				for (Card card : cards) {
+					if (card.getType().ordinal() == type && couldBeSolution(card)) { restrict(card.getId(), 1 << solutionHolder); }
+				}
+			}
+		}
+	}
+
+	/**
+	 * Once a card is known to be in the envelope, no other card of its type can be.
+	 */
+	private void solve(Card card) {
+		int type = card.getType().ordinal();
+		if (solution[type] != null) { return; }
+		solution[type] = card;
+		for (Card other : cards) {
+			if (other != card && other.getType() == card.getType()) {
+				restrict(other.getId(), possible[other.getId()] & ~(1 << solutionHolder));
+			}
+		}
+	}
+
+	/**
+	 * Check whether a holder's hand is now fully known, either because they
+	 * are known to hold a full hand, or because they can only hold a full hand.
+	 */
+	private void checkHolder(int holder) {
+		if (complete[holder] || holder == solutionHolder) { return; }
+		int bit = 1 << holder;
+		if (possibleCount[holder] < handSize[holder]) { throw new IllegalStateException("Seat " + holder + " cannot hold " + handSize[holder] + " cards"); }
+		if (knownCount[holder] > handSize[holder]) { throw new IllegalStateException("Seat " + holder + " holds more than " + handSize[holder] + " cards"); }
+		if (knownCount[holder] == handSize[holder]) {
+			complete[holder] = true;
+			for (int id = 0; id < cards.length; id++) {
+				if ((possible[id] & bit) != 0 && possible[id] != bit) { restrict(id, possible[id] & ~bit); }
+			}
+		} else if (possibleCount[holder] == handSize[holder]) {
+			complete[holder] = true;
+			for (int id = 0; id < cards.length; id++) {
+				if ((possible[id] & bit) != 0) { restrict(id, bit); }
+			}
+		}
+	}
+
+	/**
+	 * A refuter holds at least one of three cards, so once two are ruled out they hold the third.
+	 */
+	private void checkClause(int clause) {
+		int bit = 1 << clausePlayer[clause];
+		int candidate = -1, candidates = 0;
+		for (int id : clauseCards[clause]) {
+			if (possible[id] == bit) { clauseDone[clause] = true; return; }
+			if ((possible[id] & bit) != 0 && id != candidate) { candidate = id; candidates++; }
+		}
+		if (candidates == 0) { throw new IllegalStateException("Seat " + clausePlayer[clause] + " refuted without holding any of the cards"); }
+		if (candidates == 1) {
+			clauseDone[clause] = true;
+			restrict(candidate, bit);
+		}
+	}
+}
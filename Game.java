@@ -1,3 +1,4 @@
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -11,19 +12,19 @@ public class Game {
 	/**
 	 * A list of the names of all characters from Cluedo. Order goes clockwise starting from Miss Scarlet.
 	 */
-	public final List<String> characters = Arrays.asList("Miss Scarlet", "Colonel Mustard", "Mrs White", "Mr Green", "Mrs Peacock", "Professor Plum");
+	public final List<String> characters = CardRegistry.CHARACTERS;
 	/**
 	 * A list of the names of all weapons from Cluedo.
 	 */
-	public final List<String> weapons = Arrays.asList("Candlestick", "Dagger", "Lead Pipe", "Revolver", "Rope", "Spanner");
+	public final List<String> weapons = CardRegistry.WEAPONS;
 	/**
-	 * A list of the names of all rooms from Cluedo.
+	 * A list of the names of all rooms that can be suggested, in the order the board file lists them.
 	 */
-	public final List<String> rooms = Arrays.asList("Kitchen", "Ball Room", "Conservatory", "Dining Room", "Billiard Room", "Library", "Lounge", "Hall", "Study");
+	public final List<String> rooms;
 	/**
-	 * A collection of all the cards in the game, mapped to by their names.
+	 * All the cards in the game, shared with every other game on a board with the same rooms.
 	 */
-	private final Map<String,Card> allCards = new HashMap<String,Card>();
+	private final CardRegistry cards;
 	/**
 	 * A map of all players, and the player number they are associated with. Is implemented as a TreeMap to always maintain ordering of the key.
 	 */
@@ -32,6 +33,10 @@ public class Game {
 	 * A Queue that maintains the order of the players. The front of the queue is the Player whose turn is next.
 	 */
 	private Queue<Integer> playerOrderRotation = new ArrayDeque<Integer>();
+	/**
+	 * The players in turn order, indexed by Player.getSeat().
+	 */
+	private Player[] seats = new Player[0];
 	/**
 	 * A set to store all the cards used for the murder condition.
 	 */
@@ -40,6 +45,10 @@ public class Game {
 	 * The board associated with this game.
 	 */
 	private final Board board;
+	/**
+	 * The source of every random decision made in this game.
+	 */
+	private final GameRandom random;
 	/**
 	 * Determines the current state of the game
 	 */
@@ -49,9 +58,13 @@ public class Game {
 	 */
 	private Player currentPlayer;
 	/**
-	 * The UI associated with this game of Cluedo
+	 * Receives the events of this game and makes decisions for its players (e.g. the Cluedo UI)
 	 */
-	private final Cluedo userInterface;
+	private final GameListener listener;
+	/**
+	 * Where every roll, move, suggestion, refutation and accusation is recorded, or null if they are not
+	 */
+	private GameJournal journal;
 
 	//variables for buttons
 	private boolean canRoll = true;
@@ -60,39 +73,106 @@ public class Game {
 
 	/**
 	 * Game constructor.
+	 *
+	 * @param listener receives the game's events and makes decisions for its players
+	 * @param random is where every random decision in this game comes from
 	 */
-	public Game(Cluedo ui) {
-		this.board = new Board();
-		this.userInterface = ui;
+	public Game(GameListener listener, GameRandom random) {
+		this(listener, random, Board.loadTopology(Board.BOARD_FILE));
 	}
 
 	/**
-	 * Game constructor without GUI for JUnit testing
+	 * Game constructor for a board of any size and layout.
+	 *
+	 * @param listener receives the game's events and makes decisions for its players
+	 * @param random is where every random decision in this game comes from
+	 * @param topology is the layout of the board, see BoardTopology
+	 */
+	public Game(GameListener listener, GameRandom random, BoardTopology topology) {
+		this.random = random;
+		this.board = new Board(random.split(), topology);
+		this.rooms = Collections.unmodifiableList(board.getPlayableRoomNames());
+		this.cards = CardRegistry.forRooms(rooms);
+		this.listener = listener;
+		listener.attachGame(this);
+	}
+
+	/**
+	 * Game constructor with an unpredictable random seed.
+	 *
+	 * @param listener receives the game's events and makes decisions for its players
+	 */
+	public Game(GameListener listener) {
+		this(listener, new GameRandom());
+	}
+
+	/**
+	 * Game constructor without GUI for JUnit testing and headless runs
 	 */
 	public Game(){
-		this.board = new Board();
-		this.userInterface = null;
+		this(new HeadlessGameListener());
 	}
 
 	// ----------------- WHILE GAME RUNS / PLAYING TURNS -------------------
 
 	/**
 	 * Play through the game, checking gameState for whether
-	 * the game has ended or not.
+	 * the game has ended or not. When a person is playing, the
+	 * turns of bot seats are played straight away, so the game
+	 * only ever waits on people.
 	 */
 	public void play() {
 		if (gameState == 0) {
 			// Keep the game going
 			playNextTurn();
-		} else if (gameState > 0) {
+			while (gameState == 0 && currentPlayer.isBot() && hasPersonPlaying()) {
+				playBotTurn();
+				if (gameState == 0 && allPlayersCannnotAccuse()) { gameState = -1; }
+				if (gameState == 0) { playNextTurn(); }
+			}
+		}
+		if (gameState > 0) {
 			// currentPlayer won!
-			userInterface.finishGame(currentPlayer.getPlayerName() + " (" + currentPlayer.getCharacterName() + ") won! Congratulations!", murderConditions);
-		} else {
+			listener.finishGame(currentPlayer.getPlayerName() + " (" + currentPlayer.getCharacterName() + ") won! Congratulations!", murderConditions);
+		} else if (gameState < 0) {
 			// Every player made unsuccessful accusations, so nobody wins
-			userInterface.finishGame("Nobody can accuse anymore, so nobody wins!", murderConditions);
+			listener.finishGame("Nobody can accuse anymore, so nobody wins!", murderConditions);
+		}
+	}
+
+	/**
+	 * Play the current player's whole turn with their PlayerStrategy:
+	 * roll, move, suggest if they end up in a room, and accuse if the
+	 * strategy is ready to. The turn is not ended, so the caller can
+	 * call endCurrentTurn().
+	 */
+	public void playBotTurn() {
+		playTurn(currentPlayer.getStrategy());
+	}
+
+	/**
+	 * Play the current player's whole turn with any PlayerStrategy, as playBotTurn() does.
+	 *
+	 * @param strategy makes the current player's decisions for this turn
+	 */
+	public void playTurn(PlayerStrategy strategy) {
+		playerRollsDice();
+		strategy.move(currentPlayer);
+		// Suggesting is still allowed after walking out of the room the turn began in, so check where we ended up
+		if (canSuggest && checkPlayerInRoom(currentPlayer)) {
+			suggest(strategy.chooseSuggestion(currentPlayer, getPlayerRoom(currentPlayer).getName()));
+		}
+		if (canAccuse) {
+			CardTuple accusation = strategy.chooseAccusation(currentPlayer);
+			if (accusation != null) { accuse(accusation); }
 		}
 	}
 
+	private boolean hasPersonPlaying() {
+		for (Player player : players.values()) { if (!player.isBot()) { return true; } }
+		return false;
+	}
+
 	/**
 	 * Begin the next Player's turn, setting up what actions
 	 * they can and cannot do.
@@ -102,62 +182,66 @@ public class Game {
 		int currentOrderNum = playerOrderRotation.poll();
 		currentPlayer = players.get(currentOrderNum);
 		playerOrderRotation.offer(currentOrderNum);
+		record(GameJournal.TURN_STARTED, currentPlayer, 0, 0, 0);
 
 		// Tell whose turn it is on the UI
-		userInterface.showCurrentPlayerText(currentPlayer.getPlayerName() + "'s (" + currentPlayer.getCharacterName() + ") turn.");
-		userInterface.displayGameStateMessage("It's your turn!\nChoose an action below to perform.");
+		listener.showCurrentPlayerText(currentPlayer.getPlayerName() + "'s (" + currentPlayer.getCharacterName() + ") turn.");
+		listener.displayGameStateMessage("It's your turn!\nChoose an action below to perform.");
 
 		// Other UI updates: Display player's cards, clear the Suggestion panel
-		userInterface.showPlayerHand(currentPlayer);
+		listener.showPlayerHand(currentPlayer);
 
 		// Reset the state of the action buttons depending on the player's status
 		canRoll = true; // TODO: Might be false if player is trapped, i.e. can't move
-		userInterface.setRollButton(canRoll);
+		listener.setRollButton(canRoll);
 		canAccuse = currentPlayer.canAccuse();
-		userInterface.setAccuseButton(canAccuse);
+		listener.setAccuseButton(canAccuse);
 		canSuggest = checkPlayerInRoom(currentPlayer);
-		userInterface.setSuggestButton(canSuggest);
+		listener.setSuggestButton(canSuggest);
 	}
 
 	public void playerRollsDice() {
 		// First, roll some dice
 		int moveAmount = currentPlayer.prepareForMove();
 		canRoll = false;
-		userInterface.setRollButton(false);
+		listener.setRollButton(false);
 	}
 
 	public void suggestionMade() {
-		CardTuple suggestion = userInterface.askForThreeCards("Choose three cards to Suggest:", "Make a Suggestion", "Suggest!", getPlayerRoom(currentPlayer).getName());
-		canSuggest = false;
-		userInterface.setSuggestButton(false);
-
-		Piece playerPiece = board.pieces.get(suggestion.characterCard().getName());
-		Piece weaponPiece = board.pieces.get(suggestion.weaponCard().getName());
-		Room suggestedRoom = board.rooms.get(suggestion.roomCard().getName());
-
-		if(!playerPiece.location().room.equals(suggestedRoom)){
-			playerPiece.setLocation(suggestedRoom.getRandomRoomLocation());
-		}
+		String roomName = getPlayerRoom(currentPlayer).getName();
+		suggest(currentPlayer.isBot() ? currentPlayer.getStrategy().chooseSuggestion(currentPlayer, roomName)
+				: listener.askForThreeCards("Choose three cards to Suggest:", "Make a Suggestion", "Suggest!", roomName));
+	}
 
-		if(!weaponPiece.location().room.equals(suggestedRoom)){
-			weaponPiece.setLocation(suggestedRoom.getRandomRoomLocation());
-		}
+	private void suggest(CardTuple suggestion) {
+		canSuggest = false;
+		listener.setSuggestButton(false);
+		record(GameJournal.SUGGESTION, currentPlayer, suggestion.index(), 0, 0);
+		moveViaSuggestion(suggestion);
 
 		// Refute
 		Card refuteCard = refutationProcessV2(currentPlayer, suggestion);
-		userInterface.showRefutation(refuteCard, suggestion);
+		listener.showRefutation(refuteCard, suggestion);
 	}
 
 	public void accusationMade() {
-		CardTuple accusation = userInterface.askForThreeCards("Choose three cards to Accuse with:", "Make an Accusation", "Accuse!", null);
+		CardTuple accusation = currentPlayer.isBot() ? currentPlayer.getStrategy().chooseAccusation(currentPlayer)
+				: listener.askForThreeCards("Choose three cards to Accuse with:", "Make an Accusation", "Accuse!", null);
+		// A bot that is not ready to accuse keeps its chance for a later turn
+		if (accusation != null) { accuse(accusation); }
+	}
+
+	private void accuse(CardTuple accusation) {
 		canAccuse = false;
-		userInterface.setAccuseButton(false);
+		listener.setAccuseButton(false);
 		currentPlayer.setCannotAccuse();
-		if (checkAccusation(accusation)) {
+		boolean correct = checkAccusation(accusation);
+		record(GameJournal.ACCUSATION, currentPlayer, accusation.index(), correct ? 1 : 0, 0);
+		if (correct) {
 			gameState = 1;
-			userInterface.displayGameStateMessage("Your accusation was correct!\nClick the \"End Turn\" button to end the game.");
+			listener.displayGameStateMessage("Your accusation was correct!\nClick the \"End Turn\" button to end the game.");
 		} else {
-			userInterface.displayGameStateMessage("Unfortunately, your accusation was incorrect.\nYou are not able to make any more accusations.");
+			listener.displayGameStateMessage("Unfortunately, your accusation was incorrect.\nYou are not able to make any more accusations.");
 		}
 	}
 
@@ -168,7 +252,7 @@ public class Game {
 
 	public void enableSuggestion(){
 		canSuggest = checkPlayerInRoom(currentPlayer);
-		userInterface.setSuggestButton(canSuggest);
+		listener.setSuggestButton(canSuggest);
 	}
 
 	/**
@@ -181,14 +265,22 @@ public class Game {
 	 * 		   If there is no refutation card, return null.
 	 */
 	public Card refutationProcessV2(Player suggester, CardTuple suggestion) {
-		Queue<Integer> refutingPlayersQueue = new ArrayDeque<Integer>(playerOrderRotation);
-		Card refuteCard = null;
-		while (refutingPlayersQueue.size() > 0) {
-			Player refuter = players.get(refutingPlayersQueue.poll());
-			if (!refuter.equals(suggester)) {
-				refuteCard = userInterface.askToRefute(suggester, refuter, suggestion, refuter.refuteV2(suggestion));
-				if (refuteCard != null) { return refuteCard; }
+		// Ask each player in turn order, starting with the one after the suggester
+		for (int i = 1; i < seats.length; i++) {
+			Player refuter = seats[(suggester.getSeat() + i) % seats.length];
+			Set<Card> refuteOptions = refuter.refuteV2(suggestion);
+			Card refuteCard = refuter.isBot() ? refuter.getStrategy().chooseRefutation(refuter, suggester, suggestion, refuteOptions)
+					: listener.askToRefute(suggester, refuter, suggestion, refuteOptions);
+			if (refuteCard != null) {
+				record(GameJournal.REFUTED, refuter, suggestion.index(), suggester.getSeat(), refuteCard.getId());
+				listener.suggestionRefuted(suggester, refuter, suggestion);
+				for (Player player : seats) { if (player.isBot()) { player.getStrategy().suggestionRefuted(suggester, refuter, suggestion); } }
+				if (suggester.isBot()) { suggester.getStrategy().cardShown(refuter, refuteCard, suggestion); }
+				return refuteCard;
 			}
+			record(GameJournal.PASSED, refuter, suggestion.index(), suggester.getSeat(), 0);
+			listener.suggestionPassed(suggester, refuter, suggestion);
+			for (Player player : seats) { if (player.isBot()) { player.getStrategy().suggestionPassed(suggester, refuter, suggestion); } }
 		}
 		return null;
 	}
@@ -201,7 +293,29 @@ public class Game {
 	 * @param cardName is the name of the card to get
 	 * @return
 	 */
-	public Card getCard(String cardName) { return allCards.get(cardName.toLowerCase()); }
+	public Card getCard(String cardName) { return cards.get(cardName); }
+
+	/**
+	 * Get every card in the game, where each card is at the position of its id.
+	 *
+	 * @return an unmodifiable list of the cards
+	 */
+	public List<Card> getAllCards() { return cards.cards(); }
+
+	/**
+	 * @return every card in the game, and every possible murder, numbered
+	 */
+	public CardRegistry getCardRegistry() { return cards; }
+
+	/**
+	 * Get where a player sits in the turn order, counting from 0.
+	 *
+	 * @param player is the player to look for
+	 * @return the player's seat, or -1 if they are not in this game
+	 */
+	public int getSeat(Player player) {
+		return player.g == this ? player.getSeat() : -1;
+	}
 
 	/**
 	 * Compares 3 cards to the murder conditions.
@@ -211,14 +325,11 @@ public class Game {
 	 * @return whether or not they match
 	 */
 	public boolean checkAccusation(CardTuple accusation) {
-		if(murderConditions.characterCard().getName().equals(accusation.characterCard().getName())) {
-			if(murderConditions.roomCard().getName().equals(accusation.roomCard().getName())) {
-				if(murderConditions.weaponCard().getName().equals(accusation.weaponCard().getName())) {
-					return true;
-				}
-			}
-		}
-		return false;
+		if (accusation.index() >= 0) { return accusation.index() == murderConditions.index(); }
+		// Cards made outside the registry can only be told apart by name
+		return murderConditions.characterCard().getName().equals(accusation.characterCard().getName())
+				&& murderConditions.roomCard().getName().equals(accusation.roomCard().getName())
+				&& murderConditions.weaponCard().getName().equals(accusation.weaponCard().getName());
 	}
 
 	/**
@@ -230,6 +341,36 @@ public class Game {
 	 */
 	public Location getPlayerLocation(Player player) { return board.getPlayerLocation(player); }
 
+	/**
+	 * Check if the current player could get to a location with the
+	 * moves they have left this turn (e.g. to show which squares can
+	 * be clicked on). Squares already walked on this turn cannot be
+	 * walked on again, except for stepping back onto the last one.
+	 *
+	 * @param destination is the location to check
+	 * @return whether or not the current player can reach it
+	 */
+	public boolean isReachableThisTurn(Location destination) {
+		if (currentPlayer == null || canRoll) { return false; }
+		int moves = currentPlayer.getRemainingMoves();
+		if (moves > 0 && destination == currentPlayer.getPreviousLocation()) { return true; }
+		return board.canReach(getPlayerLocation(currentPlayer), moves, destination, currentPlayer.getLocationsVisited());
+	}
+
+	/**
+	 * Find a shortest walk for a player to a location (or into its room),
+	 * going around walls and other pieces.
+	 *
+	 * @param player is the player to move
+	 * @param destination is the location to get to
+	 * @param steps is the most steps the player can take
+	 * @param avoid is the squares that must not be walked on
+	 * @return the passageway squares walked onto in order, or null if the player cannot get there
+	 */
+	public List<Location> findPath(Player player, Location destination, int steps, Set<Location> avoid) {
+		return board.findPath(getPlayerLocation(player), destination, steps, avoid);
+	}
+
 	public boolean movePlayerByMouse(Location location){
 		return currentPlayer.move(location);
 	}
@@ -238,6 +379,36 @@ public class Game {
 		return currentPlayer.prepareForMove();
 	}
 
+	/**
+	 * Returns the Player whose turn it currently is
+	 * @return Player
+	 */
+	public Player getCurrentPlayer() { return currentPlayer; }
+
+	/**
+	 * Returns whether or not the game has finished (someone won, or nobody can accuse anymore)
+	 * @return boolean
+	 */
+	public boolean isOver() { return gameState != 0; }
+
+	/**
+	 * Returns the Player who made a correct accusation, or null if nobody has (yet)
+	 * @return Player
+	 */
+	public Player getWinner() { return gameState > 0 ? currentPlayer : null; }
+
+	/**
+	 * Returns whether or not the current player can make a suggestion right now
+	 * @return boolean
+	 */
+	public boolean getCanSuggest() { return canSuggest; }
+
+	/**
+	 * Returns whether or not the current player can make an accusation right now
+	 * @return boolean
+	 */
+	public boolean getCanAccuse() { return canAccuse; }
+
 	/**
 	 * Move a player piece on the board to a new position,
 	 * no validation of the location is performed.
@@ -245,7 +416,27 @@ public class Game {
 	 * @param location A destination Location object
 	 */
 	public void movePlayer(Player player, Location location){
+		Location from = getPlayerLocation(player);
 		board.movePlayer(player, location);
+		recordMove(player, from, getPlayerLocation(player));
+	}
+
+	/**
+	 * Move a player piece straight to the end of a walk, as if each
+	 * square had been stepped on in turn. No validation of the walk is
+	 * performed.
+	 *
+	 * @param player The player to move
+	 * @param path The squares walked onto in order, which must not be empty
+	 */
+	public void movePlayerAlong(Player player, List<Location> path) {
+		Location from = getPlayerLocation(player);
+		board.movePlayer(player, path.get(path.size() - 1));
+		if (journal == null) { return; }
+		for (Location step : path) {
+			recordMove(player, from, step);
+			from = step;
+		}
 	}
 
 	/**
@@ -257,7 +448,38 @@ public class Game {
 	 * @return whether or not the move was successful
 	 */
 	public Integer movePlayer(Player player, String direction, Set<Location> locationsVisited, Stack<Location> prevLocations) {
-		return board.movePlayer(player,direction,locationsVisited,prevLocations);
+		Location from = getPlayerLocation(player);
+		Integer result = board.movePlayer(player,direction,locationsVisited,prevLocations);
+		recordMove(player, from, getPlayerLocation(player));
+		return result;
+	}
+
+	private void recordMove(Player player, Location from, Location to) {
+		if (journal == null || to == from) { return; }
+		Room room = to.getRoom();
+		boolean entered = !room.isPassageway() && room != from.getRoom();
+		record(entered ? GameJournal.ROOM_ENTERED : GameJournal.STEP, player, room.getId(), from.index, to.index);
+	}
+
+	/**
+	 * Record something that happened in the journal, if there is one.
+	 *
+	 * @param kind is what happened, one of the constants of GameJournal
+	 * @param player is the player that acted
+	 */
+	void record(byte kind, Player player, int x, int y, int z) {
+		if (journal != null) { journal.record(kind, player == null ? -1 : player.getSeat(), x, y, z); }
+	}
+
+	/**
+	 * Record every roll, move, suggestion, refutation and accusation from
+	 * now on, e.g. to go back over a disputed game. The journal is not
+	 * closed by the game.
+	 *
+	 * @param journal is where to record them, or null to stop recording
+	 */
+	public void setJournal(GameJournal journal) {
+		this.journal = journal;
 	}
 
 	/**
@@ -268,7 +490,16 @@ public class Game {
 	 * 		  details of this move (what and where to move)
 	 */
 	public void moveViaSuggestion(CardTuple suggestion) {
-		board.movePiece(suggestion);
+		Room suggestedRoom = board.getRoom(suggestion.roomCard());
+		movePieceInto(board.getPiece(suggestion.characterCard()), suggestedRoom);
+		movePieceInto(board.getPiece(suggestion.weaponCard()), suggestedRoom);
+	}
+
+	private void movePieceInto(Piece piece, Room room) {
+		Location from = piece.location();
+		// A piece stays where it is if the room has no free square left for it
+		Location into = board.moveInto(piece, room);
+		if (into != null) { record(GameJournal.PIECE_MOVED, currentPlayer, piece.id(), from.index, into.index); }
 	}
 
 	/**
@@ -303,10 +534,65 @@ public class Game {
 		return board.currentBoard[row][col];
 	}
 
+	/**
+	 * @return the number of columns of squares on the board
+	 */
+	public int getBoardWidth() {
+		return board.getWidth();
+	}
+
+	/**
+	 * @return the number of rows of squares on the board
+	 */
+	public int getBoardHeight() {
+		return board.getHeight();
+	}
+
+	/**
+	 * Get the room on the board with the matching name.
+	 *
+	 * @param roomName is the name of the room to get
+	 * @return the room, or null if there is no such room
+	 */
+	public Room getRoom(String roomName) {
+		return board.rooms.get(roomName);
+	}
+
+	/**
+	 * Get how many steps it takes to walk from a location into a room,
+	 * ignoring other pieces. Worked out once when the board is loaded.
+	 *
+	 * @param from is the location to start from
+	 * @param room is the room to get to
+	 * @return the number of steps (0 if already in the room), or -1 if the room cannot be reached
+	 */
+	public int getStepsToRoom(Location from, Room room) {
+		return board.getStepsToRoom(from, room);
+	}
+
 	public Map<String,Piece> getPieces(){
 		return board.getPieces();
 	}
 
+	/**
+	 * Be told whenever a square on the board becomes occupied or empty, e.g. to redraw just that square.
+	 *
+	 * @param listener is told the square's index (row * board width + column)
+	 */
+	public void addOccupancyListener(BitBoard.OccupancyListener listener) {
+		board.bits.addOccupancyListener(listener);
+	}
+
+	/**
+	 * Get a new random generator split from this game's one, so that
+	 * players and listeners make reproducible random decisions.
+	 *
+	 * @return the new generator
+	 */
+	public GameRandom splitRandom() {
+		return random.split();
+	}
+
 	public boolean getCanRoll() {
 		return canRoll;
 	}
@@ -323,28 +609,196 @@ public class Game {
 		return board.draw();
 	}
 
+	/**
+	 * Write the board out as text, the same as printBoard(), without building a String.
+	 *
+	 * @param out is where to write the board
+	 * @throws java.io.IOException if out cannot be written to
+	 */
+	public void printBoard(Appendable out) throws java.io.IOException {
+		board.draw(out);
+	}
+
+	// ----------------- SAVING AND RESTORING -------------------
+
+	/**
+	 * Save the state of this game into a new snapshot.
+	 *
+	 * @return the snapshot
+	 */
+	public GameSnapshot save() {
+		GameSnapshot snapshot = new GameSnapshot();
+		save(snapshot);
+		return snapshot;
+	}
+
+	/**
+	 * Save the state of this game into a snapshot, replacing what was
+	 * saved in it before. Nothing is allocated once the snapshot has
+	 * been saved into once.
+	 *
+	 * @param snapshot is the snapshot to save into
+	 */
+	public void save(GameSnapshot snapshot) {
+		writeState(snapshot.startWriting(stateSize()));
+		snapshot.finishWriting();
+	}
+
+	/**
+	 * Put this game back to the state saved in a snapshot, of this game
+	 * or of another game with the same characters seated and the same
+	 * rooms. The listener is not told, so a UI should be refreshed
+	 * afterwards. Once the game has been dealt, each bot seat's strategy
+	 * is told with PlayerStrategy.restored(), so a game forked from a
+	 * snapshot can go on being played by its bots.
+	 *
+	 * @param snapshot is the snapshot to restore
+	 * @throws IllegalArgumentException if the snapshot is of a game with different players, cards, pieces or board,
+	 *         or is corrupt, in which case this game is left as it was
+	 */
+	public void restore(GameSnapshot snapshot) {
+		readState(snapshot.startReading(), snapshot.size() - 1);
+	}
+
+	/**
+	 * Get how many bytes writeState() writes, which only depends on the players and cards.
+	 */
+	private int stateSize() {
+		int handWords = (cards.cards().size() + Long.SIZE - 1) / Long.SIZE;
+		return 12 + seats.length + 7 + seats.length + seats.length * (2 + handWords * Long.BYTES) + Board.PIECE_COUNT * Integer.BYTES;
+	}
+
+	/**
+	 * Write the state of this game. First what must match for a snapshot
+	 * to be restored (the number of seats, pieces and cards, the size of
+	 * the board, and each seat's character), then the game's state, the murder and the turn
+	 * order (by seat, padded with -1 before the game is set up), each
+	 * seat's player, and lastly the square of each piece.
+	 */
+	private void writeState(ByteBuffer out) {
+		int handWords = (cards.cards().size() + Long.SIZE - 1) / Long.SIZE;
+		out.put((byte) seats.length).put((byte) Board.PIECE_COUNT).putShort((short) cards.cards().size());
+		out.putInt(board.getWidth()).putInt(board.getHeight());
+		for (Player player : seats) { out.put((byte) player.getCharacterIndex()); }
+
+		out.put((byte) gameState);
+		out.put((byte) ((canRoll ? 1 : 0) | (canSuggest ? 2 : 0) | (canAccuse ? 4 : 0)));
+		out.put((byte) (currentPlayer == null ? -1 : currentPlayer.getSeat()));
+		out.putInt(murderConditions == null ? -1 : murderConditions.index());
+		int written = 0;
+		for (int orderNum : playerOrderRotation) { out.put((byte) players.get(orderNum).getSeat()); written++; }
+		for (; written < seats.length; written++) { out.put((byte) -1); }
+
+		for (Player player : seats) {
+			out.put((byte) (player.canAccuse() ? 1 : 0)).put((byte) player.getRemainingMoves());
+			for (int word = 0; word < handWords; word++) { out.putLong(player.handWord(word)); }
+		}
+		for (int id = 0; id < Board.PIECE_COUNT; id++) { out.putInt(board.getSquare(id)); }
+	}
+
+	/**
+	 * Read the state written by writeState(), checking it fits this game before changing anything.
+	 *
+	 * @param size is how many bytes the state takes up
+	 */
+	private void readState(ByteBuffer in, int size) {
+		boolean fits = size == stateSize() && in.get() == seats.length && in.get() == Board.PIECE_COUNT && in.getShort() == cards.cards().size()
+				&& in.getInt() == board.getWidth() && in.getInt() == board.getHeight();
+		for (int seat = 0; fits && seat < seats.length; seat++) { fits = in.get() == seats[seat].getCharacterIndex(); }
+		if (!fits) { throw new IllegalArgumentException("The snapshot is of a game with different players, cards, pieces or board"); }
+		int start = in.position();
+		checkState(in);
+		in.position(start);
+
+		gameState = in.get();
+		int flags = in.get();
+		canRoll = (flags & 1) != 0;
+		canSuggest = (flags & 2) != 0;
+		canAccuse = (flags & 4) != 0;
+		int current = in.get();
+		currentPlayer = current < 0 ? null : seats[current];
+		int murder = in.getInt();
+		boolean sameDeal = murder == (murderConditions == null ? -1 : murderConditions.index());
+		murderConditions = murder < 0 ? null : cards.tuple(murder);
+		playerOrderRotation.clear();
+		for (int i = 0; i < seats.length; i++) {
+			int seat = in.get();
+			if (seat >= 0) { playerOrderRotation.offer(seats[seat].getCharacterIndex()); }
+		}
+
+		int handWords = (cards.cards().size() + Long.SIZE - 1) / Long.SIZE;
+		for (Player player : seats) {
+			player.restore(in.get() != 0, in.get());
+			int handStart = in.position();
+			boolean sameHand = true;
+			for (int word = 0; word < handWords; word++) { sameHand &= in.getLong() == player.handWord(word); }
+			// Hands only change when restoring another game's snapshot, so they are only dealt again then
+			if (!sameHand) {
+				sameDeal = false;
+				player.clearHand();
+				for (int word = 0; word < handWords; word++) {
+					for (long bits = in.getLong(handStart + word * Long.BYTES); bits != 0; bits &= bits - 1) {
+						player.giveCard(cards.get(word * Long.SIZE + Long.numberOfTrailingZeros(bits)));
+					}
+				}
+			}
+		}
+		int[] squares = new int[Board.PIECE_COUNT];
+		for (int id = 0; id < squares.length; id++) { squares[id] = in.getInt(); }
+		board.setSquares(squares);
+		if (murderConditions != null) {
+			for (Player player : seats) { if (player.isBot()) { player.getStrategy().restored(this, player, sameDeal); } }
+		}
+	}
+
+	/**
+	 * Read through the state after the header without changing anything,
+	 * so a corrupt snapshot is turned down before any of this game is.
+	 *
+	 * @throws IllegalArgumentException if a seat, murder, card or square is out of range
+	 */
+	private void checkState(ByteBuffer in) {
+		in.position(in.position() + 2);
+		int current = in.get();
+		int murder = in.getInt();
+		boolean valid = current >= -1 && current < seats.length && murder >= -1 && murder < cards.tupleCount();
+		for (int i = 0; i < seats.length; i++) {
+			int seat = in.get();
+			valid &= seat >= -1 && seat < seats.length;
+		}
+		int cardCount = cards.cards().size();
+		int handWords = (cardCount + Long.SIZE - 1) / Long.SIZE;
+		for (int seat = 0; seat < seats.length; seat++) {
+			in.position(in.position() + 2);
+			for (int word = 0; word < handWords; word++) {
+				long bits = in.getLong();
+				int past = cardCount - word * Long.SIZE;
+				valid &= past >= Long.SIZE || (bits >>> past) == 0;
+			}
+		}
+		for (int id = 0; id < Board.PIECE_COUNT; id++) {
+			int square = in.getInt();
+			valid &= square >= 0 && square < board.getWidth() * board.getHeight();
+		}
+		if (!valid) { throw new IllegalArgumentException("The snapshot has a seat, murder, card or square out of range"); }
+	}
+
 	// ------------------ UPDATING UI ----------------------
 
 	public void displayGameStateMessageUI(String text) {
-		if(userInterface != null) {
-			userInterface.displayGameStateMessage(text);
-		}
+		listener.displayGameStateMessage(text);
 	}
 
 	public void showCurrentPlayerTextUI(String text) {
-		if(userInterface != null) {
-			userInterface.showCurrentPlayerText(text);
-		}
+		listener.showCurrentPlayerText(text);
 	}
 
 	public void showDiceRollUI(int firstDieValue, int secondDieValue) {
-		if(userInterface != null){
-			userInterface.showDiceRoll(firstDieValue, secondDieValue);
-		}
+		listener.showDiceRoll(firstDieValue, secondDieValue);
 	}
 
 	public CardTuple askForThreeCardsUI(String message, String titleMessage, String buttonName, String roomName) {
-		return userInterface.askForThreeCards(message, titleMessage, buttonName, roomName);
+		return listener.askForThreeCards(message, titleMessage, buttonName, roomName);
 	}
 
 	// ----------------- PRE-GAME SETUP --------------------
@@ -354,25 +808,16 @@ public class Game {
 	 */
 	public void setup() {
 		gameState = 0;
-		// Create the cards and decide on the murder/win conditions
-		createAllCards();
-		List<Card> cardsToDeal = new ArrayList<Card>();
-		for (Map.Entry<String,Card> card : allCards.entrySet()) { cardsToDeal.add(card.getValue()); }
+		// Decide on the murder/win conditions
+		List<Card> cardsToDeal = new ArrayList<Card>(cards.cards());
 		setUpMurder(cardsToDeal);
 		// Deal the rest of the cards to the players
 		dealCards(cardsToDeal);
 		// Set up the player turn order rotation
 		for (Map.Entry<Integer,Player> player : players.entrySet()) { playerOrderRotation.offer(player.getKey()); }
-	}
-
-	/**
-	 * Manually create all the cards of the Cluedo Game.
-	 */
-	private void createAllCards() {
-		allCards.clear();
-		for (String character : characters) { allCards.put(character.toLowerCase(), new Card(character, Card.CardType.CHARACTER)); }
-		for (String weapon : weapons) { allCards.put(weapon.toLowerCase(), new Card(weapon, Card.CardType.WEAPON)); }
-		for (String room : rooms) { allCards.put(room.toLowerCase(), new Card(room, Card.CardType.ROOM)); }
+		record(GameJournal.GAME_STARTED, null, murderConditions.index(), seats.length, 0);
+		// Bots can only start working things out once every hand has been dealt
+		for (Player player : players.values()) { if (player.isBot()) { player.getStrategy().gameStarted(this, player); } }
 	}
 
 	/**
@@ -380,7 +825,7 @@ public class Game {
 	 * randomly selecting one Character, Weapon, and Room card.
 	 */
 	private void setUpMurder(List<Card> cards) {
-		Collections.shuffle(cards);
+		random.shuffle(cards);
 		Card charCard = null, weapCard = null, roomCard= null;
 		for (int i = 0; i < 3; i++) {
 			if (i == 0) { charCard = getMurderCard(cards, Card.CardType.CHARACTER); }
@@ -391,7 +836,7 @@ public class Game {
 	}
 
 	/**
-	 * Select the first card from allCards of a certain type.
+	 * Select the first card from the shuffled cards of a certain type.
 	 *
 	 * @param type is the type of card to look for
 	 */
@@ -400,7 +845,7 @@ public class Game {
 		Card murderCard = null;
 		for (Card card : cards) { if (card.getType() == type) { murderCard = card; break; } }
 		// Check if a card was selected at all.
-		// If not, there must not be any cards of that type in allCards
+		// If not, there must not be any cards of that type in the registry
 		if (murderCard == null) { throw new NullPointerException("Murder card for type " + type + " not found. Check that cards of all types are added to the list of all cards."); }
 		else {
 			cards.remove(murderCard);
@@ -417,9 +862,26 @@ public class Game {
 	 * @return false if a Player with the same playerName is already in the game, otherwise true
 	 */
 	public boolean addPlayer(int playerNumber, String playerName, String characterName) {
+		return addPlayer(playerNumber, playerName, characterName, null);
+	}
+
+	/**
+	 * Add a new player to the game, whose decisions are made by a
+	 * PlayerStrategy (a bot) rather than through the GameListener.
+	 *
+	 * @param playerNumber is the player's number (e.g. Player 1)
+	 * @param playerName is the username of the player
+	 * @param characterName is the character played by the player
+	 * @param strategy makes the player's decisions, or null for a person
+	 * @return false if a Player with the same playerName is already in the game, otherwise true
+	 */
+	public boolean addPlayer(int playerNumber, String playerName, String characterName, PlayerStrategy strategy) {
 		// First, check if that username is already used
 		for (Map.Entry<Integer,Player> player : players.entrySet()) { if (playerName.equals(player.getValue().getPlayerName())) { return false; } }
-		players.put(characters.indexOf(characterName), new Player(playerNumber, playerName, characterName, this));
+		players.put(characters.indexOf(characterName), new Player(playerNumber, playerName, characterName, this, strategy));
+		// Seats follow the turn order, which is the order of the characters
+		seats = players.values().toArray(new Player[0]);
+		for (int seat = 0; seat < seats.length; seat++) { seats[seat].setSeat(seat); }
 		return true;
 	}
 
@@ -0,0 +1,310 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * An append-only record of everything that happens in a game (see
+ * Game.setJournal()), so a disputed game can be gone back over move by
+ * move.
+ *
+ * Every record is 16 bytes: a sequence number (counting from 1), the
+ * kind of record, the seat that acted, and three numbers whose meaning
+ * depends on the kind (see the constants below). Squares are indexes
+ * into the BitBoard (row * width + column), murders are CardTuple
+ * indexes and cards are card ids.
+ *
+ * Records are written straight into a memory-mapped file, a chunk of
+ * the file at a time, and forced to disk every so many records rather
+ * than every one. The sequence number is written last, so a record is
+ * either all there or not there at all, and the unused end of the last
+ * chunk is zeros. Opening an existing journal carries on after its last
+ * record.
+ *
+ * A journal is written by one game's thread only.
+ */
+public class GameJournal implements Closeable {
+	/**
+	 * How many bytes every record takes up, the header included.
+	 */
+	public static final int RECORD_SIZE = 16;
+	/**
+	 * The version of the layout, written in the header after "CLJR".
+	 */
+	public static final short VERSION = 1;
+	private static final int MAGIC = 0x434c4a52;
+
+	/**
+	 * The deal is done: x is the murder, y is how many seats there are.
+	 */
+	public static final byte GAME_STARTED = 1;
+	/**
+	 * The seat's turn has begun.
+	 */
+	public static final byte TURN_STARTED = 2;
+	/**
+	 * The seat rolled the dice: x is the total, y and z are each die.
+	 */
+	public static final byte ROLL = 3;
+	/**
+	 * The seat's piece moved within the Passageway or out of a Room: x is
+	 * the id of the Room it is now in, y is the square it left and z is the
+	 * square it reached.
+	 */
+	public static final byte STEP = 4;
+	/**
+	 * The seat's piece walked into a Room: x is the Room's id, y is the square it left and z is the square it reached.
+	 */
+	public static final byte ROOM_ENTERED = 5;
+	/**
+	 * The seat made a suggestion: x is the murder suggested.
+	 */
+	public static final byte SUGGESTION = 6;
+	/**
+	 * The seat could not refute a suggestion: x is the murder suggested, y is the seat that suggested it.
+	 */
+	public static final byte PASSED = 7;
+	/**
+	 * The seat refuted a suggestion: x is the murder suggested, y is the seat that suggested it, z is the card shown.
+	 */
+	public static final byte REFUTED = 8;
+	/**
+	 * The seat made an accusation: x is the murder accused, y is 1 if it was right and 0 if not.
+	 */
+	public static final byte ACCUSATION = 9;
+	/**
+	 * A suggestion by the seat moved a piece into the suggested Room: x is the piece's id, y is the square it left and z is the square it reached.
+	 */
+	public static final byte PIECE_MOVED = 10;
+
+	private static final String[] KINDS = {null, "game started", "turn started", "roll", "step", "room entered", "suggestion", "passed", "refuted", "accusation", "piece moved"};
+
+	private final FileChannel channel;
+	private final int syncEvery;
+	private final int recordsPerChunk;
+	// The part of the file records are being written into, where it starts, the next record in it, and the first record not yet forced to disk
+	private MappedByteBuffer chunk;
+	private long chunkStart;
+	private int next;
+	private int synced;
+	private int sequence;
+
+	/**
+	 * Open a journal, forcing it to disk every 1024 records.
+	 *
+	 * @param file is the journal's file, which is made if it does not exist
+	 * @throws IOException if the file cannot be opened, or is not a journal
+	 */
+	public GameJournal(Path file) throws IOException {
+		this(file, 1024);
+	}
+
+	/**
+	 * Open a journal.
+	 *
+	 * @param file is the journal's file, which is made if it does not exist
+	 * @param syncEvery is how many records are written between forcing them to disk
+	 * @throws IOException if the file cannot be opened, or is not a journal
+	 */
+	public GameJournal(Path file, int syncEvery) throws IOException {
+		this(file, syncEvery, 1 << 16);
+	}
+
+	/**
+	 * @param recordsPerChunk is how many records are mapped at once (a megabyte's worth outside of tests)
+	 */
+	GameJournal(Path file, int syncEvery, int recordsPerChunk) throws IOException {
+		if (syncEvery < 1 || recordsPerChunk < 2) { throw new IllegalArgumentException("A journal must sync at least every record, and map at least two at a time"); }
+		this.syncEvery = syncEvery;
+		this.recordsPerChunk = recordsPerChunk;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			long end = 1;
+			if (channel.size() == 0) {
+				map(0);
+				chunk.putInt(0, MAGIC).putShort(4, VERSION).putShort(6, (short) RECORD_SIZE);
+				chunk.force(0, RECORD_SIZE);
+			} else {
+				checkHeader(channel);
+				end = findEnd();
+				if (end > 1) { sequence = readInt(channel, (end - 1) * RECORD_SIZE); }
+				map(end * RECORD_SIZE / chunkBytes() * chunkBytes());
+			}
+			next = synced = (int) (end - chunkStart / RECORD_SIZE);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private long chunkBytes() { return (long) recordsPerChunk * RECORD_SIZE; }
+
+	private void map(long start) throws IOException {
+		chunkStart = start;
+		chunk = channel.map(FileChannel.MapMode.READ_WRITE, start, chunkBytes());
+	}
+
+	/**
+	 * Find the first empty record, where the sequence number is 0. Every
+	 * record before it is written and every one after it is empty, so it
+	 * can be found by halving.
+	 */
+	private long findEnd() throws IOException {
+		long low = 1, high = channel.size() / RECORD_SIZE;
+		while (low < high) {
+			long middle = (low + high) >>> 1;
+			if (readInt(channel, middle * RECORD_SIZE) != 0) { low = middle + 1; }
+			else { high = middle; }
+		}
+		return low;
+	}
+
+	private static void checkHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(8);
+		channel.read(header, 0);
+		if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION || header.getShort(6) != RECORD_SIZE) {
+			throw new IOException("Not a version " + VERSION + " game journal");
+		}
+	}
+
+	private static int readInt(FileChannel channel, long position) throws IOException {
+		ByteBuffer value = ByteBuffer.allocate(Integer.BYTES);
+		channel.read(value, position);
+		return value.getInt(0);
+	}
+
+	/**
+	 * Append a record, forcing the records written since the last sync to
+	 * disk if there are syncEvery of them. Nothing is allocated unless the
+	 * chunk is full and the next one has to be mapped.
+	 *
+	 * @param kind is what happened, one of the constants of this class
+	 * @param seat is the seat that acted, or -1 if none did
+	 * @param x is the first number, which must fit in a short
+	 * @param y is the second number
+	 * @param z is the third number
+	 * @throws UncheckedIOException if the next chunk of the file cannot be mapped
+	 */
+	public void record(byte kind, int seat, int x, int y, int z) {
+		if (next == recordsPerChunk) { nextChunk(); }
+		int at = next * RECORD_SIZE;
+		chunk.put(at + 4, kind).put(at + 5, (byte) seat).putShort(at + 6, (short) x).putInt(at + 8, y).putInt(at + 12, z);
+		chunk.putInt(at, ++sequence);
+		next++;
+		if (next - synced >= syncEvery) { sync(); }
+	}
+
+	private void nextChunk() {
+		sync();
+		try {
+			map(chunkStart + chunkBytes());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		next = synced = 0;
+	}
+
+	/**
+	 * Force every record written so far to disk.
+	 */
+	public void sync() {
+		if (next > synced) {
+			chunk.force(synced * RECORD_SIZE, (next - synced) * RECORD_SIZE);
+			synced = next;
+		}
+	}
+
+	/**
+	 * @return the sequence number of the last record, or 0 if there are none
+	 */
+	public int getSequence() { return sequence; }
+
+	/**
+	 * Force every record to disk and close the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!channel.isOpen()) { return; }
+		sync();
+		chunk = null;
+		channel.close();
+	}
+
+	/**
+	 * Read every record of a journal, e.g. to go back over a game.
+	 *
+	 * @param file is the journal's file
+	 * @return the records, in order
+	 * @throws IOException if the file cannot be read, or is not a journal
+	 */
+	public static List<Entry> read(Path file) throws IOException {
+		List<Entry> entries = new ArrayList<Entry>();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			checkHeader(channel);
+			ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096);
+			long position = RECORD_SIZE;
+			while (channel.read(buffer, position) > 0) {
+				buffer.flip();
+				for (int at = 0; at + RECORD_SIZE <= buffer.limit(); at += RECORD_SIZE) {
+					int sequence = buffer.getInt(at);
+					if (sequence == 0) { return entries; }
+					entries.add(new Entry(sequence, buffer.get(at + 4), buffer.get(at + 5), buffer.getShort(at + 6), buffer.getInt(at + 8), buffer.getInt(at + 12)));
+				}
+				position += buffer.limit() / RECORD_SIZE * RECORD_SIZE;
+				buffer.clear();
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * One record read back from a journal, see the constants of GameJournal for what its numbers mean.
+	 */
+	public static class Entry {
+		private final int sequence;
+		private final byte kind;
+		private final int seat, x, y, z;
+
+		Entry(int sequence, byte kind, int seat, int x, int y, int z) {
+			this.sequence = sequence;
+			this.kind = kind;
+			this.seat = seat;
+			this.x = x;
+			this.y = y;
+			this.z = z;
+		}
+
+		public int sequence() { return sequence; }
+
+		public byte kind() { return kind; }
+
+		public int seat() { return seat; }
+
+		public int x() { return x; }
+
+		public int y() { return y; }
+
+		public int z() { return z; }
+
+		@Override
+		public String toString() {
+			String name = kind > 0 && kind < KINDS.length ? KINDS[kind] : "kind " + kind;
+			return sequence + ": " + name + (seat >= 0 ? " by seat " + seat : "") + " (" + x + ", " + y + ", " + z + ")";
+		}
+	}
+
+	/**
+	 * Print every record of a journal.
+	 *
+	 * @param args is the journal's file
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.out.println("Usage: java GameJournal file");
+			return;
+		}
+		for (Entry entry : read(Paths.get(args[0]))) { System.out.println(entry); }
+	}
+}
@@ -0,0 +1,120 @@
+import java.util.Set;
+
+/**
+ * Receives the events that a Game produces while it is being
+ * played, and makes the decisions that a Game needs from its
+ * players (choosing cards to suggest, accuse or refute with).
+ *
+ * The Swing frame (Cluedo) is one implementation of this. A
+ * Game can be driven without any UI at all by using a
+ * HeadlessGameListener instead.
+ */
+public interface GameListener {
+
+	/**
+	 * Called once by the Game this listener is given to, so the
+	 * listener can look up cards and players when it needs to.
+	 *
+	 * @param game is the game being listened to
+	 */
+	default void attachGame(Game game) {}
+
+	// ------------------------ EVENTS -----------------------------
+
+	/**
+	 * Called when a new turn begins, with a description of whose turn it is.
+	 *
+	 * @param text is the description of the current player
+	 */
+	void showCurrentPlayerText(String text);
+
+	/**
+	 * Called whenever the state of the current turn changes.
+	 *
+	 * @param text is a message describing what the current player can do next
+	 */
+	void displayGameStateMessage(String text);
+
+	/**
+	 * Called at the start of a turn with the player whose turn it is.
+	 *
+	 * @param player is the current player
+	 */
+	void showPlayerHand(Player player);
+
+	void setRollButton(boolean active);
+
+	void setSuggestButton(boolean active);
+
+	void setAccuseButton(boolean active);
+
+	/**
+	 * Called when the current player rolls the dice.
+	 *
+	 * @param firstDieValue is the value of the first die
+	 * @param secondDieValue is the value of the second die
+	 */
+	void showDiceRoll(int firstDieValue, int secondDieValue);
+
+	/**
+	 * Called once a suggestion has gone around the table.
+	 *
+	 * @param refuteCard is the card that refuted the suggestion, or null if nobody could
+	 * @param suggestion is the suggestion that was made
+	 */
+	void showRefutation(Card refuteCard, CardTuple suggestion);
+
+	/**
+	 * Called when a player has none of the suggested cards, before the
+	 * next player is asked. Every player at the table sees this.
+	 *
+	 * @param suggester is the Player that made the suggestion
+	 * @param passer is the Player that could not refute it
+	 * @param suggestion is the suggestion made by suggester
+	 */
+	default void suggestionPassed(Player suggester, Player passer, CardTuple suggestion) {}
+
+	/**
+	 * Called when a player shows the suggester a card. Every player at
+	 * the table sees this, but only the suggester is shown the card
+	 * (through showRefutation()).
+	 *
+	 * @param suggester is the Player that made the suggestion
+	 * @param refuter is the Player that refuted it
+	 * @param suggestion is the suggestion made by suggester
+	 */
+	default void suggestionRefuted(Player suggester, Player refuter, CardTuple suggestion) {}
+
+	/**
+	 * Called when the game is over.
+	 *
+	 * @param endMessage describes who won (if anyone)
+	 * @param murderConditions is the winning combination of cards
+	 */
+	void finishGame(String endMessage, CardTuple murderConditions);
+
+	// ----------------------- DECISIONS ---------------------------
+
+	/**
+	 * Ask the current player to select 3 cards.
+	 *
+	 * @param message is the message to display (e.g. "Choose three cards:")
+	 * @param titleMessage is the title of the request (e.g. "Make a suggestion")
+	 * @param buttonName is the text of the confirmation action (e.g. "Okay" or "Accuse!")
+	 * @param roomName is the name of the room to suggest for (only for suggesting). If not suggesting, this should be null.
+	 * @return a CardTuple consisting of the 3 chosen cards
+	 */
+	CardTuple askForThreeCards(String message, String titleMessage, String buttonName, String roomName);
+
+	/**
+	 * Ask a player to choose a card to refute with (if any), given
+	 * a suggestion.
+	 *
+	 * @param suggester is the Player that made the suggestion
+	 * @param refuter is the Player to attempt to refute the suggestion
+	 * @param suggestion is the suggestion made by suggester
+	 * @param refuteOptions is a collection of cards that the refuter can choose to refute with
+	 * @return the Card chosen to refute with, or null if refuteOptions is empty
+	 */
+	Card askToRefute(Player suggester, Player refuter, CardTuple suggestion, Set<Card> refuteOptions);
+}
@@ -0,0 +1,99 @@
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The single source of randomness for one game: dice rolls, dealing
+ * cards, choosing the murder, placing weapons and choosing squares
+ * inside rooms all draw from a GameRandom (or one split from it).
+ *
+ * Two games built from the same seed make exactly the same random
+ * decisions. Splitting gives each part of a game (board, players,
+ * bots) its own independent generator, so no two threads ever share
+ * one.
+ */
+public class GameRandom {
+	/**
+	 * The odd constant SplittableRandom uses to space out its seeds (2^64 divided by the golden ratio).
+	 */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private final SplittableRandom random;
+
+	/**
+	 * Create a generator that always produces the same sequence for the same seed.
+	 *
+	 * @param seed is the seed to start from
+	 */
+	public GameRandom(long seed) {
+		this(new SplittableRandom(seed));
+	}
+
+	/**
+	 * Create a generator with an unpredictable seed.
+	 */
+	public GameRandom() {
+		this(new SplittableRandom());
+	}
+
+	private GameRandom(SplittableRandom random) {
+		this.random = random;
+	}
+
+	/**
+	 * Get the seed for one game out of a batch of games. The seed only
+	 * depends on the batch seed and the game's index, so a batch gives the
+	 * same games no matter how they are shared out between threads.
+	 *
+	 * @param batchSeed is the seed of the whole batch
+	 * @param gameIndex is the position of the game in the batch
+	 * @return the seed for that game
+	 */
+	public static long seedForGame(long batchSeed, long gameIndex) {
+		// Stafford's "Mix13" finaliser, the same one SplittableRandom uses internally
+		long z = batchSeed + (gameIndex + 1) * GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Create a new generator that is independent of this one. Splitting
+	 * in the same order always gives the same generators.
+	 *
+	 * @return the new generator
+	 */
+	public GameRandom split() {
+		return new GameRandom(random.split());
+	}
+
+	/**
+	 * Get a random number from 0 (inclusive) up to bound (exclusive).
+	 *
+	 * @param bound is the upper limit, which must be positive
+	 * @return the random number
+	 */
+	public int nextInt(int bound) {
+		return random.nextInt(bound);
+	}
+
+	/**
+	 * Roll a single six-sided die.
+	 *
+	 * @return a number from 1 to 6
+	 */
+	public int rollDie() {
+		return random.nextInt(6) + 1;
+	}
+
+	/**
+	 * Randomly reorder a list in place (Fisher-Yates shuffle).
+	 *
+	 * @param list is the list to shuffle
+	 */
+	public <T> void shuffle(List<T> list) {
+		for (int i = list.size() - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			list.set(i, list.set(j, list.get(i)));
+		}
+	}
+}
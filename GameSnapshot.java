@@ -0,0 +1,115 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The state of a Game at one moment, packed into about 150 bytes:
+ * the square of every piece, every hand, the murder, the turn order, who
+ * can still accuse and how many moves are left this turn (see Game.save()
+ * and Game.restore()).
+ *
+ * A snapshot can be saved into over and over, and restored from as many
+ * times as needed, without allocating anything, so bots can fork a
+ * position and put it back cheaply. It can also be written out as bytes
+ * and read back later to pick up a game where it was left off.
+ *
+ * The random generators of the game and its players are not part of a
+ * snapshot, so a restored game rolls its own dice from then on, and
+ * neither is what the players' strategies have worked out (see
+ * PlayerStrategy.restored()).
+ */
+public class GameSnapshot {
+	/**
+	 * The layout of the bytes, written first so an old or foreign snapshot is never read as this one.
+	 */
+	public static final byte VERSION = 1;
+
+	private byte[] data;
+	private ByteBuffer buffer;
+	private int length;
+
+	/**
+	 * Create an empty snapshot to save a game into.
+	 */
+	public GameSnapshot() {
+		setData(new byte[128]);
+	}
+
+	/**
+	 * Create a snapshot from bytes written by toByteArray() or writeTo().
+	 *
+	 * @param bytes is the snapshot's bytes, which are copied
+	 * @throws IllegalArgumentException if the bytes are not a snapshot of this version
+	 */
+	public GameSnapshot(byte[] bytes) {
+		if (bytes.length < 1 || bytes[0] != VERSION) { throw new IllegalArgumentException("Not a version " + VERSION + " game snapshot"); }
+		setData(bytes.clone());
+		length = bytes.length;
+	}
+
+	/**
+	 * Read a snapshot written by writeTo().
+	 *
+	 * @param in is where to read the snapshot from
+	 * @return the snapshot
+	 * @throws IOException if in cannot be read, or does not hold a snapshot of this version
+	 */
+	public static GameSnapshot readFrom(DataInput in) throws IOException {
+		byte[] bytes = new byte[in.readUnsignedShort()];
+		in.readFully(bytes);
+		try {
+			return new GameSnapshot(bytes);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Write the snapshot out with its length in front, so readFrom() knows where it ends.
+	 *
+	 * @param out is where to write the snapshot
+	 * @throws IOException if out cannot be written to
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeShort(length);
+		out.write(data, 0, length);
+	}
+
+	/**
+	 * @return a copy of the snapshot's bytes
+	 */
+	public byte[] toByteArray() { return Arrays.copyOf(data, length); }
+
+	/**
+	 * @return how many bytes the snapshot takes up, or 0 if nothing has been saved into it
+	 */
+	public int size() { return length; }
+
+	private void setData(byte[] bytes) {
+		data = bytes;
+		buffer = ByteBuffer.wrap(data);
+	}
+
+	/**
+	 * Get the buffer for a game to write its state into, after the version.
+	 *
+	 * @param size is how many bytes the game's state takes up
+	 */
+	ByteBuffer startWriting(int size) {
+		if (size + 1 > data.length) { setData(new byte[size + 1]); }
+		buffer.clear();
+		buffer.put(VERSION);
+		return buffer;
+	}
+
+	void finishWriting() { length = buffer.position(); }
+
+	/**
+	 * Get the buffer for a game to read its state from, after the version.
+	 */
+	ByteBuffer startReading() {
+		if (length == 0) { throw new IllegalStateException("Nothing has been saved into this snapshot"); }
+		buffer.limit(length).position(1);
+		return buffer;
+	}
+}
@@ -0,0 +1,76 @@
+import java.util.*;
+
+/**
+ * A GameListener that needs no UI. Events are ignored, refutations
+ * use the first card available, and suggestions/accusations are
+ * made with randomly chosen cards. Used for running games on
+ * machines without a display, and as a base for bot players.
+ */
+public class HeadlessGameListener implements GameListener {
+	protected GameRandom rand;
+	protected Game game;
+	private String endMessage;
+
+	@Override
+	public void attachGame(Game game) {
+		this.game = game;
+		this.rand = game.splitRandom();
+	}
+
+	/**
+	 * Returns whether or not the game has finished
+	 * @return boolean
+	 */
+	public boolean isFinished() { return endMessage != null; }
+
+	/**
+	 * Returns the message given when the game finished, or null if it has not finished
+	 * @return String
+	 */
+	public String getEndMessage() { return endMessage; }
+
+	// ------------------------ EVENTS -----------------------------
+
+	@Override
+	public void showCurrentPlayerText(String text) {}
+
+	@Override
+	public void displayGameStateMessage(String text) {}
+
+	@Override
+	public void showPlayerHand(Player player) {}
+
+	@Override
+	public void setRollButton(boolean active) {}
+
+	@Override
+	public void setSuggestButton(boolean active) {}
+
+	@Override
+	public void setAccuseButton(boolean active) {}
+
+	@Override
+	public void showDiceRoll(int firstDieValue, int secondDieValue) {}
+
+	@Override
+	public void showRefutation(Card refuteCard, CardTuple suggestion) {}
+
+	@Override
+	public void finishGame(String endMessage, CardTuple murderConditions) { this.endMessage = endMessage; }
+
+	// ----------------------- DECISIONS ---------------------------
+
+	@Override
+	public CardTuple askForThreeCards(String message, String titleMessage, String buttonName, String roomName) {
+		String character = game.characters.get(rand.nextInt(game.characters.size()));
+		String weapon = game.weapons.get(rand.nextInt(game.weapons.size()));
+		String room = roomName != null ? roomName : game.rooms.get(rand.nextInt(game.rooms.size()));
+		return new CardTuple(game.getCard(character), game.getCard(weapon), game.getCard(room));
+	}
+
+	@Override
+	public Card askToRefute(Player suggester, Player refuter, CardTuple suggestion, Set<Card> refuteOptions) {
+		for (Card card : refuteOptions) { return card; }
+		return null;
+	}
+}
@@ -1,30 +1,62 @@
 import java.awt.*;
+import java.util.Arrays;
 
 /**
  * This Location class holds all the information about each
- * square on the Cludeo board.
+ * square on the Cludeo board. The walls and whether the square
+ * is occupied are stored in the Board's BitBoard, this class is
+ * a view onto one square of it.
  *
  * @author Jared Boult
  */
 public class Location {
+    final BitBoard bits;
+    final int index;
     Room room;
-    boolean northWall;
-    boolean eastWall;
-    boolean southWall;
-    boolean westWall;
     Point point;
-    boolean occupied;
     Piece piece;
+    boolean entrance;
+    // Position of this Location in its Room's array of free squares, or -1 if it is not in it
+    int freeSlot = -1;
+    // The Rooms this Location is an exit of, and its index among each Room's exits
+    Room[] exitOf = NO_ROOMS;
+    int[] exitIndex = NO_INDEXES;
+    // Shared by every Location that is not an exit, which is most of them
+    private static final Room[] NO_ROOMS = new Room[0];
+    private static final int[] NO_INDEXES = new int[0];
 
-    public Location(Room room, String walls, int boardRow, int boardColumn){
+    /**
+     * Creates a view onto a square whose walls are already in bits. The
+     * walls are shared by every Board made from the same file (see
+     * BitBoard.sharingWalls()), so a Location never changes them.
+     */
+    public Location(BitBoard bits, Room room, int boardRow, int boardColumn){
+        this.bits = bits;
+        this.index = bits.index(boardRow, boardColumn);
         this.room = room;
-        this.northWall = walls.contains("N");
-        this.eastWall = walls.contains("E");
-        this.southWall = walls.contains("S");
-        this.westWall = walls.contains("W");
         this.point = new Point(boardColumn, boardRow);
     }
 
+    public boolean hasNorthWall(){
+        return bits.hasWall(index, BitBoard.NORTH);
+    }
+
+    public boolean hasEastWall(){
+        return bits.hasWall(index, BitBoard.EAST);
+    }
+
+    public boolean hasSouthWall(){
+        return bits.hasWall(index, BitBoard.SOUTH);
+    }
+
+    public boolean hasWestWall(){
+        return bits.hasWall(index, BitBoard.WEST);
+    }
+
+    public boolean isOccupied(){
+        return bits.isOccupied(index);
+    }
+
     public Room getRoom() {
         return room;
     }
@@ -33,36 +65,66 @@ public class Location {
         return piece;
     }
 
-    public boolean canMoveUp(Board board){
-        if(point.y <= 0){
-            return false;
+    /**
+     * Places a Piece on this Location, or clears it if the piece
+     * is null, and lets the Room know the square has changed.
+     *
+     * @param piece The Piece now on this Location, or null
+     */
+    void setPiece(Piece piece){
+        this.piece = piece;
+        boolean occupied = piece != null;
+        bits.setOccupied(index, occupied);
+        if(room != null){
+            room.occupancyChanged(this);
+        }
+        for(int i = 0; i < exitOf.length; i++){
+            exitOf[i].exitOccupancyChanged(exitIndex[i], occupied);
         }
-        boolean squareIsOccupied = board.currentBoard[point.y-1][point.x].occupied;
-        return !northWall && !squareIsOccupied;
     }
 
-    public boolean canMoveDown(Board board){
-        if(point.y >= Board.HEIGHT-1){
-            return false;
-        }
-        boolean squareIsOccupied = board.currentBoard[point.y+1][point.x].occupied;
-        return !southWall && !squareIsOccupied;
+    /**
+     * Records that this Location is an exit of a Room.
+     *
+     * @param exitRoom The Room this Location is an exit of
+     * @param index The index of this Location among the Room's exits
+     */
+    void addExitOf(Room exitRoom, int index){
+        exitOf = Arrays.copyOf(exitOf, exitOf.length + 1);
+        exitIndex = Arrays.copyOf(exitIndex, exitIndex.length + 1);
+        exitOf[exitOf.length - 1] = exitRoom;
+        exitIndex[exitIndex.length - 1] = index;
     }
 
-    public boolean canMoveRight(Board board){
-        if(point.x >= Board.WIDTH-1){
-            return false;
+    /**
+     * Finds the index of this Location among a Room's exits.
+     *
+     * @param exitRoom The Room to check
+     * @return The index, or -1 if this Location is not an exit of exitRoom
+     */
+    int exitIndexIn(Room exitRoom){
+        for(int i = 0; i < exitOf.length; i++){
+            if(exitOf[i] == exitRoom){
+                return exitIndex[i];
+            }
         }
-        boolean squareIsOccupied = board.currentBoard[point.y][point.x+1].occupied;
-        return !eastWall && !squareIsOccupied;
+        return -1;
     }
 
-    public boolean canMoveLeft(Board board){
-        if(point.x <= 0){
-            return false;
-        }
-        boolean squareIsOccupied = board.currentBoard[point.y][point.x-1].occupied;
-        return !westWall && !squareIsOccupied;
+    public boolean canMoveUp(){
+        return bits.canMove(index, BitBoard.NORTH);
+    }
+
+    public boolean canMoveDown(){
+        return bits.canMove(index, BitBoard.SOUTH);
+    }
+
+    public boolean canMoveRight(){
+        return bits.canMove(index, BitBoard.EAST);
+    }
+
+    public boolean canMoveLeft(){
+        return bits.canMove(index, BitBoard.WEST);
     }
 
     public String checkAdjacent(Location other){
@@ -4,25 +4,55 @@
  * @author Elijah Guarina
  */
 public class Piece {
+	private final String name;
 	private final String displayIcon;
+	/**
+	 * The piece's position in the order the board created its pieces (characters, then weapons), so
+	 * things kept for each piece (e.g. its picture) can be looked up in an array.
+	 */
+	private final int id;
 	private Location location;
-	
-	public Piece(String icon, Location loc) {
+
+	/**
+	 * @param name is the character or weapon the piece stands for
+	 * @param icon is the letter the piece is printed as
+	 * @param id is the piece's position in the order the board created its pieces
+	 * @param loc is where the piece starts
+	 */
+	public Piece(String name, String icon, int id, Location loc) {
+		this.name = name;
 		this.displayIcon = icon;
+		this.id = id;
 		this.location = loc;
-		this.location.occupied = true;
-		loc.piece = this;
+		loc.setPiece(this);
 	}
-	
+
+	/**
+	 * Create a piece that goes by its icon and is not one of the board's own pieces.
+	 */
+	public Piece(String icon, Location loc) {
+		this(icon, icon, -1, loc);
+	}
+
+	public String name() { return name; }
+
 	public String icon() { return displayIcon; }
+
+	public int id() { return id; }
 	
 	public Location location() { return location; }
 
 	public void setLocation(Location loc){
-		this.location.occupied = false;
-		this.location.piece = null;
+		this.location.setPiece(null);
+		place(loc);
+	}
+
+	/**
+	 * Put the piece on a location without clearing the one it was on,
+	 * for when the board has already lifted it off (see Board.setSquares()).
+	 */
+	void place(Location loc){
 		this.location = loc;
-		loc.occupied = true;
-		loc.piece = this;
+		loc.setPiece(this);
 	}
 }
@@ -5,19 +5,36 @@ public class Player {
 	private final int playerNumber;
 	private final String playerName;
 	private final String characterName;
-	private final Random rand;
+	// The character's position in CardRegistry.CHARACTERS, which is also the id of their piece on the Board
+	private final int characterIndex;
+	private final GameRandom rand;
 	public Game g;
 	private boolean canAccuse;
 	private int counter;
 	private Stack<Location> prevLocations;
 	private Set<Location> locationsVisited;
+	private final PlayerStrategy strategy;
+	/**
+	 * The cards in hand as bits, by card id, so suggestions can be checked without looking through the hand
+	 */
+	private long[] handBits = new long[1];
+	private int seat = -1;
 
 	public Player(int playerNum, String username, String character, Game game) {
+		this(playerNum, username, character, game, null);
+	}
+
+	/**
+	 * @param strategy makes this player's decisions, or null if a person makes them through the GameListener
+	 */
+	public Player(int playerNum, String username, String character, Game game, PlayerStrategy strategy) {
+		this.strategy = strategy;
 		this.hand = new HashMap<>();
 		this.playerNumber = playerNum;
 		this.playerName = username;
 		this.characterName = character;
-		this.rand = new Random();
+		this.characterIndex = CardRegistry.CHARACTERS.indexOf(character);
+		this.rand = game.splitRandom();
 		this.prevLocations = new Stack<Location>();
 		this.locationsVisited = new HashSet<Location>();
 		this.g = game;
@@ -30,6 +47,18 @@ public class Player {
 	 */
 	public int getPlayerNumber() { return playerNumber; }
 
+	/**
+	 * Returns what makes this player's decisions, or null if a person does
+	 * @return PlayerStrategy
+	 */
+	public PlayerStrategy getStrategy() { return strategy; }
+
+	/**
+	 * Returns whether or not this player's decisions are made by a PlayerStrategy
+	 * @return boolean
+	 */
+	public boolean isBot() { return strategy != null; }
+
 	/**
 	 * Returns the username of this Player
 	 * @return String
@@ -42,19 +71,106 @@ public class Player {
 	 */
 	public String getCharacterName() { return characterName; }
 
+	/**
+	 * Returns the index of this Player's character in CardRegistry.CHARACTERS
+	 * @return Integer
+	 */
+	public int getCharacterIndex() { return characterIndex; }
+
 	public Map<String,Card> getHand(){
 		return hand;
 	}
 
 	public boolean canAccuse() { return canAccuse; }
 
+	/**
+	 * Returns how many squares this Player can still move this turn
+	 * @return int
+	 */
+	public int getRemainingMoves() { return counter; }
+
 	public void setCannotAccuse() { canAccuse = false; }
 
 	/**
 	 * Puts Card into players hand
 	 * @param card
 	 */
-	public void giveCard(Card card) { hand.put(card.getName(),card); }
+	public void giveCard(Card card) {
+		hand.put(card.getName(),card);
+		int id = card.getId();
+		if (id < 0) { return; }
+		if (id / Long.SIZE >= handBits.length) { handBits = Arrays.copyOf(handBits, id / Long.SIZE + 1); }
+		handBits[id / Long.SIZE] |= 1L << id;
+	}
+
+	/**
+	 * Returns 64 bits of this player's hand, where bit i is set if they hold the card with id 64*word + i
+	 * @return long
+	 */
+	long handWord(int word) { return word < handBits.length ? handBits[word] : 0; }
+
+	/**
+	 * Empties this player's hand, e.g. before a restored game deals it back
+	 */
+	void clearHand() {
+		hand.clear();
+		Arrays.fill(handBits, 0);
+	}
+
+	/**
+	 * Puts back the state this player had when a game was saved. The
+	 * squares walked so far this turn are forgotten, so a restored
+	 * turn may walk back over them.
+	 *
+	 * @param canAccuse is whether the player could still accuse
+	 * @param counter is how many squares the player could still move
+	 */
+	void restore(boolean canAccuse, int counter) {
+		this.canAccuse = canAccuse;
+		this.counter = counter;
+		locationsVisited.clear();
+		prevLocations.clear();
+	}
+
+	/**
+	 * Returns the squares walked on so far this turn, which cannot be walked on again
+	 * @return Set
+	 */
+	Set<Location> getLocationsVisited() { return locationsVisited; }
+
+	/**
+	 * Returns the square this player last stepped off, which stepping back onto undoes, or null
+	 * @return Location
+	 */
+	Location getPreviousLocation() { return prevLocations.isEmpty() ? null : prevLocations.peek(); }
+
+	/**
+	 * Returns whether or not this player has a card in their hand
+	 * @return boolean
+	 */
+	public boolean holds(Card card) {
+		int id = card.getId();
+		if (id < 0) { return hand.get(card.getName()) == card; }
+		return id / Long.SIZE < handBits.length && (handBits[id / Long.SIZE] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Returns whether or not this player holds any of the cards in a
+	 * suggestion, which is a single AND unless a card's id is past 63
+	 * @return boolean
+	 */
+	public boolean canRefute(CardTuple tup) {
+		if ((handBits[0] & tup.mask()) != 0) { return true; }
+		return !tup.fitsMask() && (holds(tup.characterCard()) || holds(tup.weaponCard()) || holds(tup.roomCard()));
+	}
+
+	/**
+	 * Returns where this player sits in the turn order, counting from 0
+	 * @return int
+	 */
+	public int getSeat() { return seat; }
+
+	void setSeat(int seat) { this.seat = seat; }
 
 	public Integer prepareForMove(){
 		locationsVisited.clear();
@@ -70,9 +186,10 @@ public class Player {
 	 * @return the total of the two dice
 	 */
 	private Integer rollDice() {
-		int first = rand.nextInt(6) + 1, second = rand.nextInt(6) + 1;
+		int first = rand.rollDie(), second = rand.rollDie();
+		this.g.record(GameJournal.ROLL, this, first + second, first, second);
 		this.g.showDiceRollUI(first, second);
-		this.g.displayGameStateMessageUI("You rolled a " + first + " and a " + second + ".\nClick on the board to move! (one tile at a time)");
+		this.g.displayGameStateMessageUI("You rolled a " + first + " and a " + second + ".\nClick on the board to move!");
 		return first + second;
 	}
 
@@ -85,7 +202,7 @@ public class Player {
 		}
 
 		// Ignore clicks within Rooms if a Players is currently in one
-		if(g.checkPlayerInRoom(this) && !destination.room.getName().equals("Passageway")){
+		if(g.checkPlayerInRoom(this) && !destination.room.isPassageway()){
 			return false;
 		}
 
@@ -93,16 +210,19 @@ public class Player {
 		Location newLocation;
 
 		// First valid option is a player exiting a room
-		if (g.checkPlayerInRoom(this) && g.getPlayerRoom(this).getUnoccupiedExits().contains(destination)) {
+		if (g.checkPlayerInRoom(this) && g.getPlayerRoom(this).isUnoccupiedExit(destination)) {
 			g.movePlayer(this, destination);
 			counter--;
 			return true;
 		}
 
 		// Second valid option is a player entering a room
-		if(!destination.room.getName().equals("Passageway")
+		if(!destination.room.isPassageway()
 				&& destination.room.getExits().contains(g.getPlayerLocation(this))){
-			g.movePlayer(this, destination.room.getRandomRoomLocation());
+			Location inside = destination.room.getRandomRoomLocation();
+			// A room with no free square left cannot be walked into
+			if (inside == null) { return false; }
+			g.movePlayer(this, inside);
 			counter = 0;
 			g.enableSuggestion();
 			return true;
@@ -114,8 +234,10 @@ public class Player {
 			// Before anything, record the location we're moving from
 			currentLocation = g.getPlayerLocation(this);
 			String direction = currentLocation.checkAdjacent(destination);
-			if(direction.equals("Invalid")){
-				return false;
+			// Anywhere further away (or inside a room) is walked to the shortest way in one go
+			if(direction.equals("Invalid") || g.checkPlayerInRoom(this)
+					|| !destination.room.isPassageway()){
+				return moveAlongPath(destination);
 			}
 			// Then first, check whether or not the move is valid
 			int moveAttemptResult = g.movePlayer(this, direction, locationsVisited, prevLocations);
@@ -139,8 +261,46 @@ public class Player {
 		return false;
 	}
 
+	/**
+	 * Walk the shortest way to a square (or into a room) that is not next
+	 * to this player, using one move per square and never crossing a
+	 * square already visited this turn. The piece is moved once, straight
+	 * to the end of the walk.
+	 *
+	 * @param destination is the square or room to get to
+	 * @return whether or not the player could get there with the moves left
+	 */
+	private boolean moveAlongPath(Location destination) {
+		List<Location> path = g.findPath(this, destination, counter, locationsVisited);
+		if (path == null) { return false; }
+		// Choose the square inside first, so a room with no free square left is not walked up to
+		Location inside = destination.room.isPassageway() ? null : destination.room.getRandomRoomLocation();
+		if (!destination.room.isPassageway() && inside == null) { return false; }
+		if (!path.isEmpty()) {
+			// Remember each square left behind, just as if they had been clicked one at a time
+			Location previous = g.getPlayerLocation(this);
+			for (Location step : path) {
+				if (previous.room.isPassageway()) {
+					locationsVisited.add(previous);
+					prevLocations.push(previous);
+				}
+				previous = step;
+			}
+			g.movePlayerAlong(this, path);
+			counter -= path.size();
+		}
+		if (inside != null) {
+			g.movePlayer(this, inside);
+			counter = 0;
+			g.enableSuggestion();
+		}
+		return true;
+	}
+
 	public Set<Card> refuteV2(CardTuple tup){
-		Set<Card> refuteOptions = new HashSet<Card>();
+		// Most players asked cannot refute, so answer them without building a set
+		if (!canRefute(tup)) { return Collections.emptySet(); }
+		Set<Card> refuteOptions = new LinkedHashSet<Card>();
 		for(Card c : hand.values()) {
 			if(tup.characterCard().equals(c)) { refuteOptions.add(c); }
 			if(tup.weaponCard().equals(c)) { refuteOptions.add(c);; }
@@ -0,0 +1,104 @@
+import java.util.Set;
+
+/**
+ * Makes every decision for one seat at the table, so a Game can seat
+ * bots next to people (see Game.addPlayer()) and play their turns
+ * without asking its GameListener anything.
+ *
+ * A Game calls a seat's strategy instead of the listener for that
+ * seat's decisions, and tells every strategy what happens at the table.
+ * The listener still hears every event, so a UI keeps showing what the
+ * bots do.
+ */
+public interface PlayerStrategy {
+
+	/**
+	 * Called once the cards have been dealt, before the first turn.
+	 *
+	 * @param game is the game being played
+	 * @param player is the seat this strategy plays
+	 */
+	void gameStarted(Game game, Player player);
+
+	/**
+	 * Called when the game is put back to a snapshot (see Game.restore()).
+	 * If the cards were dealt differently before, e.g. in a game that was
+	 * just made to fork a position into, what the strategy worked out no
+	 * longer holds, so by default it starts over with gameStarted().
+	 *
+	 * @param game is the game being played
+	 * @param player is the seat this strategy plays
+	 * @param sameDeal is whether every hand and the murder are the same as before the restore
+	 */
+	default void restored(Game game, Player player, boolean sameDeal) {
+		if (!sameDeal) { gameStarted(game, player); }
+	}
+
+	// ----------------------- DECISIONS ---------------------------
+
+	/**
+	 * Called once the dice have been rolled, to walk the player as far as
+	 * the strategy wants with Player.move().
+	 *
+	 * @param player is the player to move
+	 */
+	void move(Player player);
+
+	/**
+	 * Choose the cards to suggest. Only called when the player is in a
+	 * room, and the room must be the one suggested.
+	 *
+	 * @param player is the player suggesting
+	 * @param roomName is the room the player is in
+	 * @return the suggestion
+	 */
+	CardTuple chooseSuggestion(Player player, String roomName);
+
+	/**
+	 * Choose a card to refute someone else's suggestion with.
+	 *
+	 * @param refuter is the player refuting
+	 * @param suggester is the player that made the suggestion
+	 * @param suggestion is the suggestion made by suggester
+	 * @param refuteOptions is a collection of cards that the refuter can choose to refute with
+	 * @return one of refuteOptions, or null if refuteOptions is empty
+	 */
+	Card chooseRefutation(Player refuter, Player suggester, CardTuple suggestion, Set<Card> refuteOptions);
+
+	/**
+	 * Called at the end of each of the player's turns while they may still accuse.
+	 *
+	 * @param player is the player who may accuse
+	 * @return the accusation to make, or null to wait for a later turn
+	 */
+	CardTuple chooseAccusation(Player player);
+
+	// ------------------------ EVENTS -----------------------------
+
+	/**
+	 * Called when a player has none of the suggested cards.
+	 *
+	 * @param suggester is the Player that made the suggestion
+	 * @param passer is the Player that could not refute it
+	 * @param suggestion is the suggestion made by suggester
+	 */
+	default void suggestionPassed(Player suggester, Player passer, CardTuple suggestion) {}
+
+	/**
+	 * Called when a player shows the suggester a card, without saying which.
+	 *
+	 * @param suggester is the Player that made the suggestion
+	 * @param refuter is the Player that refuted it
+	 * @param suggestion is the suggestion made by suggester
+	 */
+	default void suggestionRefuted(Player suggester, Player refuter, CardTuple suggestion) {}
+
+	/**
+	 * Called on the suggester's strategy only, with the card they were shown.
+	 *
+	 * @param refuter is the Player that showed the card
+	 * @param card is the card shown
+	 * @param suggestion is the suggestion it refuted
+	 */
+	default void cardShown(Player refuter, Card card, CardTuple suggestion) {}
+}
@@ -0,0 +1,224 @@
+import java.util.Arrays;
+
+/**
+ * Remembers, for every square and every dice total, which Passageway
+ * squares and which Rooms a player could get to from that square.
+ * Results are worked out with the BitBoard flood fill the first time
+ * they are asked for and then reused until a piece moves onto or off
+ * a square the result depended on.
+ *
+ * A result for a roll of n can only depend on squares within n steps
+ * of the start when pieces are ignored (its "footprint"), so a piece
+ * moving anywhere else leaves it untouched. Boards too big to keep the
+ * footprints use the squares within n steps ignoring walls as well,
+ * which is never smaller.
+ */
+public class ReachabilityCache implements BitBoard.OccupancyListener {
+    /**
+     * The highest total two dice can roll. Larger step counts are
+     * worked out every time rather than cached.
+     */
+    public static final int MAX_ROLL = 12;
+    /**
+     * Boards too big for footprints keep results for at most this many
+     * start squares, dropping one of the earliest kept when another is needed.
+     */
+    static final int LARGE_BOARD_STARTS = 256;
+
+    private final BitBoard bits;
+    // For each Room id, the squares that are exits of that Room
+    private final int[][] roomExits;
+    // The longs needed for one bit per Room
+    private final int roomWords;
+
+    // Results for each start square, only created once the square is
+    // asked about: the squares and Rooms for each roll, by number of steps
+    private final long[][][] squares;
+    private final long[][][] rooms;
+    // One bit per number of steps, set while that result is up to date.
+    // The Rooms are only worked out when asked for, so have their own bits.
+    private final int[] valid;
+    private final int[] roomsValid;
+    // The answer for no steps, when no Room can be reached
+    private final long[] noRooms;
+    // Footprints do not depend on where pieces are, so they are worked out
+    // once per board file and shared by every game (see BoardTopology).
+    // Null if the Board is too big to keep them.
+    private final long[][] footprints;
+    // The start squares with any valid results, so only they need checking
+    // when a piece moves, and each square's position in the list (or -1)
+    private final int[] live;
+    private final int[] liveSlot;
+    private int liveCount;
+
+    /**
+     * @param bits The walls and occupancy of the Board
+     * @param roomExits The exit squares of every Room, indexed by Room id
+     * @param footprints The squares within each number of steps of each
+     *                   square, ignoring pieces, at
+     *                   [square * (MAX_ROLL + 1) + steps], or null to
+     *                   ignore walls when deciding what a move affects
+     */
+    public ReachabilityCache(BitBoard bits, int[][] roomExits, long[][] footprints){
+        this.bits = bits;
+        this.roomExits = roomExits;
+        this.roomWords = (roomExits.length + 63) >>> 6;
+        int cells = bits.width * bits.height;
+        this.squares = new long[cells][][];
+        this.rooms = new long[cells][][];
+        this.valid = new int[cells];
+        this.roomsValid = new int[cells];
+        this.noRooms = new long[roomWords];
+        this.footprints = footprints;
+        this.live = new int[cells];
+        this.liveSlot = new int[cells];
+        Arrays.fill(liveSlot, -1);
+        bits.addOccupancyListener(this);
+    }
+
+    /**
+     * Gets the Passageway squares a piece on a square could walk to
+     * in at most a number of steps, including the square itself.
+     *
+     * @param start The bit index of the square to start from
+     * @param steps The most steps that can be taken
+     * @return The squares as BitBoard bits. This may be shared, so
+     *         it must not be changed.
+     */
+    public long[] squares(int start, int steps){
+        if(steps > MAX_ROLL){
+            long[] reached = new long[bits.words];
+            bits.reachable(start, steps, reached, false);
+            return reached;
+        }
+        if((valid[start] & (1 << steps)) == 0){
+            fill(start, steps);
+        }
+        return squares[start][steps];
+    }
+
+    /**
+     * Gets the Rooms a piece on a Passageway square could walk into
+     * with a number of steps. Entering a Room takes one step from
+     * one of its exits.
+     *
+     * @param start The bit index of the square to start from
+     * @param steps The most steps that can be taken
+     * @return One bit per Room, at the Room's id. This may be shared,
+     *         so it must not be changed.
+     */
+    public long[] rooms(int start, int steps){
+        if(steps == 0){
+            return noRooms;
+        }
+        if(steps > MAX_ROLL){
+            return roomsFrom(squares(start, steps - 1));
+        }
+        if((roomsValid[start] & (1 << steps)) == 0){
+            // Rooms are entered from squares one step short of the roll
+            long[] found = roomsFrom(squares(start, steps - 1));
+            if(rooms[start] == null){
+                rooms[start] = new long[MAX_ROLL + 1][];
+            }
+            rooms[start][steps] = found;
+            roomsValid[start] |= 1 << steps;
+        }
+        return rooms[start][steps];
+    }
+
+    private void fill(int start, int steps){
+        if(squares[start] == null){
+            squares[start] = new long[MAX_ROLL + 1][];
+        }
+        if(squares[start][steps] == null){
+            squares[start][steps] = new long[bits.words];
+        }
+        bits.reachable(start, steps, squares[start][steps], false);
+        valid[start] |= 1 << steps;
+        if(liveSlot[start] < 0){
+            if(footprints == null && liveCount == LARGE_BOARD_STARTS){
+                // Each result takes a bit per square, so let the oldest go
+                int oldest = live[0];
+                squares[oldest] = null;
+                rooms[oldest] = null;
+                valid[oldest] = 0;
+                roomsValid[oldest] = 0;
+                removeLive(0);
+            }
+            liveSlot[start] = liveCount;
+            live[liveCount++] = start;
+        }
+    }
+
+    /**
+     * Takes the start square at position i out of the live list by
+     * moving the last one into its place.
+     */
+    private void removeLive(int i){
+        int start = live[i];
+        int last = live[--liveCount];
+        live[i] = last;
+        liveSlot[last] = i;
+        liveSlot[start] = -1;
+    }
+
+    /**
+     * Works out which Rooms have an exit among some squares.
+     */
+    private long[] roomsFrom(long[] reached){
+        long[] found = new long[roomWords];
+        for(int id = 0; id < roomExits.length; id++){
+            for(int exit : roomExits[id]){
+                if(BitBoard.get(reached, exit)){
+                    BitBoard.set(found, id);
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Throws away every result whose footprint covers a square that
+     * has just become occupied or unoccupied.
+     */
+    @Override
+    public void occupancyChanged(int index){
+        for(int i = liveCount - 1; i >= 0; i--){
+            int start = live[i];
+            if(footprints == null){
+                int distance = Math.abs(start % bits.width - index % bits.width) + Math.abs(start / bits.width - index / bits.width);
+                if(distance <= MAX_ROLL){
+                    valid[start] &= (1 << distance) - 1;
+                    roomsValid[start] &= (1 << distance) - 1;
+                }
+            }
+            else{
+                int entry = start * (MAX_ROLL + 1);
+                // Footprints grow with the number of steps, so once one covers
+                // the square every larger one does too
+                for(int steps = Integer.numberOfTrailingZeros(valid[start]); steps <= MAX_ROLL; steps++){
+                    if(BitBoard.get(footprints[entry + steps], index)){
+                        valid[start] &= (1 << steps) - 1;
+                        roomsValid[start] &= (1 << steps) - 1;
+                        break;
+                    }
+                }
+            }
+            if(valid[start] == 0){
+                // Every start after i has already been checked, so the last one can fill the gap
+                removeLive(i);
+            }
+        }
+    }
+
+    /**
+     * Throws away every result, e.g. after the walls have changed.
+     */
+    public void clear(){
+        Arrays.fill(valid, 0);
+        Arrays.fill(roomsValid, 0);
+        Arrays.fill(liveSlot, -1);
+        liveCount = 0;
+    }
+}
@@ -8,17 +8,53 @@ import java.util.*;
  */
 public class Room {
     private String name;
-    private Set<Location> locations = new HashSet<>();
-    private Set<Location> entrances = new HashSet<>();
-    private Set<Location> exits = new HashSet<>();
+    private final int id;
+    // Whether this is the Passageway between the Rooms, so it can be told apart without comparing names
+    private final boolean passageway;
+    private final GameRandom random;
+    // The Locations, entrances and exits in the order they were added, so
+    // iteration order is the same for every game built from the same seed.
+    // The Sets handed out are read-only views of these arrays.
+    private Location[] locationArray = new Location[0];
+    private int locationCount = 0;
+    private Location[] entranceArray = new Location[0];
+    private int entranceCount = 0;
+    private final Set<Location> locations = new ArrayView(ArrayView.LOCATIONS);
+    private final Set<Location> entrances = new ArrayView(ArrayView.ENTRANCES);
+    private final Set<Location> exits = new ArrayView(ArrayView.EXITS);
+    // Every unoccupied Location in this Room that is not an entrance, in no
+    // particular order. Removal swaps the last square into the gap, and each
+    // Location remembers its index, so all updates are constant time.
+    private Location[] freeSquares = new Location[16];
+    private int freeSquareCount = 0;
+    // The exits in the order they were added, with one bit per exit
+    // that is set while that exit is unoccupied
+    private Location[] exitArray = new Location[0];
+    private long[] freeExitBits = new long[0];
+    private int freeExitCount = 0;
+    private final Set<Location> unoccupiedExits = new UnoccupiedExits();
 
     /**
      * Constructor for the Room class
      *
      * @param name The name of the Room
+     * @param id The Room's position in the Board's list of Rooms
+     * @param passageway Whether this is the Passageway rather than a Room
+     * @param random Where random Locations in this Room are chosen from
      */
-    Room(String name){
+    Room(String name, int id, boolean passageway, GameRandom random){
         this.name = name;
+        this.id = id;
+        this.passageway = passageway;
+        this.random = random;
+    }
+
+    /**
+     * @return True if this is the Passageway that joins the Rooms
+     *         together, rather than a Room
+     */
+    public boolean isPassageway() {
+        return passageway;
     }
 
     /**
@@ -30,6 +66,16 @@ public class Room {
         return name;
     }
 
+    /**
+     * Getter for the id of the Room, which numbers the Board's
+     * Rooms from 0 in the order they were created
+     *
+     * @return The id
+     */
+    public int getId() {
+        return id;
+    }
+
     public Set<Location> getLocations() {
         return locations;
     }
@@ -38,32 +84,45 @@ public class Room {
         return entrances;
     }
 
+    /**
+     * Gets the exits of this Room that nothing is standing on.
+     *
+     * @return A read-only view that always reflects the current
+     *         state of the board, so it does not need to be fetched again
+     */
     public Set<Location> getUnoccupiedExits() {
-        Set<Location> unoccupiedExits = new HashSet<>();
-        for(Location loc : exits){
-            if(!loc.occupied){
-                unoccupiedExits.add(loc);
-            }
-        }
         return unoccupiedExits;
     }
 
+    /**
+     * @return The number of exits out of this Room that are unoccupied
+     */
+    public int getUnoccupiedExitCount() {
+        return freeExitCount;
+    }
+
+    /**
+     * Checks whether a Location is an unoccupied exit of this Room.
+     *
+     * @param location The Location to check
+     * @return True if location is an exit of this Room and is unoccupied
+     */
+    public boolean isUnoccupiedExit(Location location) {
+        int index = location.exitIndexIn(this);
+        return index >= 0 && (freeExitBits[index >>> 6] & (1L << index)) != 0;
+    }
+
     public Set<Location> getExits() {
         return exits;
     }
 
     public boolean playerCanRoll(){
         // Can always roll when in the hallway
-        if(name.equals("Passageway")){
+        if(passageway){
             return true;
         }
         // Cannot roll if all exits out of the room are blocked
-        for(Location loc : exits){
-            if(!loc.occupied){
-                return true;
-            }
-        }
-        return false;
+        return freeExitCount > 0;
     }
 
     /**
@@ -73,7 +132,11 @@ public class Room {
      * @param location A Location that exists within this Room
      */
     public void addLocation(Location location){
-        locations.add(location);
+        if(locationCount == locationArray.length){
+            locationArray = Arrays.copyOf(locationArray, Math.max(8, locationCount * 2));
+        }
+        locationArray[locationCount++] = location;
+        occupancyChanged(location);
     }
 
     /**
@@ -84,7 +147,15 @@ public class Room {
      *                 the Passageway it can access.
      */
     public void addEntrance(Location location){
-        entrances.add(location);
+        if(location.entrance){
+            return;
+        }
+        if(entranceCount == entranceArray.length){
+            entranceArray = Arrays.copyOf(entranceArray, Math.max(8, entranceCount * 2));
+        }
+        entranceArray[entranceCount++] = location;
+        location.entrance = true;
+        occupancyChanged(location);
     }
 
     /**
@@ -95,7 +166,34 @@ public class Room {
      *                 square it can access inside this Room.
      */
     public void addExit(Location location){
-        exits.add(location);
+        if(location.exitIndexIn(this) >= 0){
+            return;
+        }
+        int index = exitArray.length;
+        exitArray = Arrays.copyOf(exitArray, index + 1);
+        exitArray[index] = location;
+        if(freeExitBits.length <= index >>> 6){
+            freeExitBits = Arrays.copyOf(freeExitBits, (index >>> 6) + 1);
+        }
+        location.addExitOf(this, index);
+        exitOccupancyChanged(index, location.isOccupied());
+    }
+
+    /**
+     * Keeps the unoccupied exits up to date after an exit gains or
+     * loses a Piece.
+     *
+     * @param index The index of the exit that changed
+     * @param occupied Whether the exit is now occupied
+     */
+    void exitOccupancyChanged(int index, boolean occupied){
+        long bit = 1L << index;
+        boolean wasFree = (freeExitBits[index >>> 6] & bit) != 0;
+        if(wasFree == !occupied){
+            return;
+        }
+        freeExitBits[index >>> 6] ^= bit;
+        freeExitCount += occupied ? -1 : 1;
     }
 
     /**
@@ -106,13 +204,159 @@ public class Room {
      * @return - A random unoccupied Location
      */
     public Location getRandomRoomLocation(){
-        List<Location> allLocations = new ArrayList<>(locations);
-        Collections.shuffle(allLocations);
-        for (Location loc : allLocations) {
-            if (!loc.occupied && !entrances.contains(loc)) {
-                return loc;
+        if(freeSquareCount == 0){
+            return null;
+        }
+        return freeSquares[random.nextInt(freeSquareCount)];
+    }
+
+    /**
+     * Keeps the free squares up to date after a Location in this
+     * Room gains or loses a Piece, or becomes an entrance.
+     *
+     * @param location The Location that changed
+     */
+    void occupancyChanged(Location location){
+        boolean free = !location.isOccupied() && !location.entrance;
+        if(free && location.freeSlot < 0){
+            if(freeSquareCount == freeSquares.length){
+                freeSquares = Arrays.copyOf(freeSquares, freeSquareCount * 2);
+            }
+            location.freeSlot = freeSquareCount;
+            freeSquares[freeSquareCount++] = location;
+        }
+        else if(!free && location.freeSlot >= 0){
+            Location last = freeSquares[--freeSquareCount];
+            freeSquares[location.freeSlot] = last;
+            last.freeSlot = location.freeSlot;
+            freeSquares[freeSquareCount] = null;
+            location.freeSlot = -1;
+        }
+    }
+
+    /**
+     * A read-only Set of the unoccupied exits, read straight from
+     * the exit bits rather than copied.
+     */
+    private class UnoccupiedExits extends AbstractSet<Location> {
+        @Override
+        public int size() {
+            return freeExitCount;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Location && isUnoccupiedExit((Location) o);
+        }
+
+        @Override
+        public Iterator<Location> iterator() {
+            return new Iterator<Location>() {
+                int next = nextFreeExit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Location next() {
+                    if(next < 0){
+                        throw new NoSuchElementException();
+                    }
+                    Location exit = exitArray[next];
+                    next = nextFreeExit(next + 1);
+                    return exit;
+                }
+            };
+        }
+    }
+
+    /**
+     * A read-only Set of this Room's Locations, entrances or exits,
+     * backed by the array they are kept in. Checking whether a Location
+     * is in the Set asks the Location rather than searching.
+     */
+    private class ArrayView extends AbstractSet<Location> {
+        static final int LOCATIONS = 0;
+        static final int ENTRANCES = 1;
+        static final int EXITS = 2;
+
+        private final int kind;
+
+        ArrayView(int kind) {
+            this.kind = kind;
+        }
+
+        private Location[] array() {
+            return kind == LOCATIONS ? locationArray : kind == ENTRANCES ? entranceArray : exitArray;
+        }
+
+        @Override
+        public int size() {
+            return kind == LOCATIONS ? locationCount : kind == ENTRANCES ? entranceCount : exitArray.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(!(o instanceof Location)){
+                return false;
+            }
+            Location location = (Location) o;
+            switch(kind){
+                case LOCATIONS:
+                    return location.room == Room.this;
+                case ENTRANCES:
+                    return location.room == Room.this && location.entrance;
+                default:
+                    return location.exitIndexIn(Room.this) >= 0;
+            }
+        }
+
+        @Override
+        public Iterator<Location> iterator() {
+            return new Iterator<Location>() {
+                // Taken once, so adding to the Room does not change what this iterator sees
+                final Location[] array = array();
+                final int size = size();
+                int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public Location next() {
+                    if(next >= size){
+                        throw new NoSuchElementException();
+                    }
+                    return array[next++];
+                }
+            };
+        }
+    }
+
+    /**
+     * Finds the first unoccupied exit at or after an index.
+     *
+     * @param from The index to start looking from
+     * @return The index of the exit, or -1 if there are none
+     */
+    private int nextFreeExit(int from){
+        int word = from >>> 6;
+        if(word >= freeExitBits.length){
+            return -1;
+        }
+        long bits = freeExitBits[word] & (-1L << from);
+        while(true){
+            if(bits != 0){
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if(++word == freeExitBits.length){
+                return -1;
             }
+            bits = freeExitBits[word];
         }
-        return null;
     }
 }
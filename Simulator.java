@@ -0,0 +1,164 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Plays many complete games of Cluedo with bot players and no UI,
+ * spread over a fixed pool of worker threads, then reports how often
+ * each character won, how long games lasted and how many games were
+ * played per second.
+ *
+ * Every game gets its own seed worked out from the batch seed and the
+ * game's number, so running the same batch again (with any number of
+ * threads) plays exactly the same games.
+ *
+ * Usage: java Simulator [games] [players] [threads] [seed]
+ */
+public class Simulator {
+	/**
+	 * Games still running after this many turns are abandoned and counted as unfinished.
+	 */
+	public static final int MAX_TURNS = 1000;
+
+	private final int games;
+	private final int playerCount;
+	private final int threads;
+	private final long seed;
+
+	/**
+	 * @param games is how many games to play
+	 * @param playerCount is how many bots sit at each game (3 to 6)
+	 * @param threads is how many worker threads to play games on
+	 * @param seed is the seed that every game's random decisions are worked out from
+	 */
+	public Simulator(int games, int playerCount, int threads, long seed) {
+		if (playerCount < 3 || playerCount > 6) { throw new IllegalArgumentException("Cluedo needs between 3 and 6 players, got " + playerCount); }
+		if (games < 0 || threads < 1) { throw new IllegalArgumentException("Need a non-negative number of games and at least one thread."); }
+		this.games = games;
+		this.playerCount = playerCount;
+		this.threads = threads;
+		this.seed = seed;
+	}
+
+	/**
+	 * Play every game and collect the results.
+	 *
+	 * @return the combined results of every worker
+	 */
+	public Results run() throws InterruptedException, ExecutionException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		try {
+			List<Future<Results>> workers = new ArrayList<Future<Results>>();
+			int first = 0;
+			for (int worker = 0; worker < threads; worker++) {
+				// Share the games out as evenly as possible
+				int from = first, to = first + games / threads + (worker < games % threads ? 1 : 0);
+				workers.add(pool.submit(() -> playGames(from, to)));
+				first = to;
+			}
+			Results total = new Results(playerCount);
+			for (Future<Results> worker : workers) { total.add(worker.get()); }
+			total.elapsedNanos = System.nanoTime() - start;
+			total.seed = seed;
+			return total;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Play the games numbered from (inclusive) to to (exclusive).
+	 */
+	private Results playGames(int from, int to) {
+		Results results = new Results(playerCount);
+		for (int i = from; i < to; i++) { playGame(i, results); }
+		return results;
+	}
+
+	/**
+	 * Play one full game with bots in every seat, recording the outcome.
+	 *
+	 * @param index is the game's number in the batch, which decides its seed
+	 */
+	private void playGame(int index, Results results) {
+		Game game = new Game(new HeadlessGameListener(), new GameRandom(GameRandom.seedForGame(seed, index)));
+		for (int seat = 0; seat < playerCount; seat++) {
+			game.addPlayer(seat + 1, "Bot " + (seat + 1), game.characters.get(seat), new BotStrategy());
+		}
+		game.setup();
+		game.play();
+		int turns = 0;
+		while (!game.isOver() && turns < MAX_TURNS) {
+			game.playBotTurn();
+			turns++;
+			game.endCurrentTurn();
+		}
+		results.record(game, turns);
+	}
+
+	/**
+	 * The outcome of a batch of games.
+	 */
+	public static class Results {
+		/**
+		 * How many games each seat won, indexed by the character's position in Game.characters.
+		 */
+		public final long[] wins;
+		private final String[] characters;
+		public long games;
+		public long nobodyWon;
+		public long unfinished;
+		public long totalTurns;
+		public long elapsedNanos;
+		public long seed;
+
+		Results(int playerCount) {
+			this.wins = new long[playerCount];
+			this.characters = new String[playerCount];
+		}
+
+		void record(Game game, int turns) {
+			for (int i = 0; i < characters.length; i++) { characters[i] = game.characters.get(i); }
+			games++;
+			totalTurns += turns;
+			Player winner = game.getWinner();
+			if (winner != null) { wins[game.characters.indexOf(winner.getCharacterName())]++; }
+			else if (game.isOver()) { nobodyWon++; }
+			else { unfinished++; }
+		}
+
+		void add(Results other) {
+			for (int i = 0; i < wins.length; i++) {
+				wins[i] += other.wins[i];
+				if (other.characters[i] != null) { characters[i] = other.characters[i]; }
+			}
+			games += other.games;
+			nobodyWon += other.nobodyWon;
+			unfinished += other.unfinished;
+			totalTurns += other.totalTurns;
+		}
+
+		public String toString() {
+			StringBuilder out = new StringBuilder();
+			double seconds = elapsedNanos / 1e9;
+			out.append(String.format("%d games in %.2fs (%.0f games/s), seed %d%n", games, seconds, games / Math.max(seconds, 1e-9), seed));
+			out.append(String.format("Average turns per game: %.1f%n", games == 0 ? 0.0 : (double) totalTurns / games));
+			for (int i = 0; i < wins.length; i++) {
+				out.append(String.format("  %-16s %6.2f%%%n", characters[i], percent(wins[i])));
+			}
+			out.append(String.format("  %-16s %6.2f%%%n", "Nobody", percent(nobodyWon)));
+			out.append(String.format("  %-16s %6.2f%%%n", "Unfinished", percent(unfinished)));
+			return out.toString();
+		}
+
+		private double percent(long count) { return games == 0 ? 0.0 : 100.0 * count / games; }
+	}
+
+	public static void main(String[] args) throws Exception {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int players = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+		System.out.print(new Simulator(games, players, threads, seed).run());
+	}
+}
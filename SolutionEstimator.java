@@ -0,0 +1,334 @@
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Estimates how likely each possible murder (CardTuple) is, and how
+ * likely each player is to hold each card, by sampling whole deals that
+ * agree with everything a DeductionEngine has been told.
+ *
+ * A number of independent chains each hold one consistent deal. A chain
+ * moves on by swapping two cards between holders, keeping only swaps
+ * that still agree with the engine (possible holders, one murder card of
+ * each type, and every "refuter holds one of these" clause). Every
+ * consistent deal is then equally likely in the long run, so counting
+ * the deals a chain passes through gives the probabilities.
+ *
+ * Chains keep their deal from one estimate to the next. After new
+ * events a deal that still agrees is carried on with straight away, and
+ * only a chain whose deal has been ruled out is dealt again, with a
+ * random backtracking search. Chains run in parallel on the pool they
+ * are given. Asking for a number of samples gives the same answer on
+ * any pool; asking for a time budget gives as many samples as fit.
+ */
+public class SolutionEstimator {
+	/**
+	 * Swaps tried between samples, per card in the game, so that samples are not too alike.
+	 */
+	private static final int SWAPS_PER_SAMPLE = 1;
+	/**
+	 * Swaps tried after a chain is dealt again, per card in the game, before it is sampled.
+	 */
+	private static final int BURN_IN = 50;
+	private static final int CHARACTER = Card.CardType.CHARACTER.ordinal(), WEAPON = Card.CardType.WEAPON.ordinal(), ROOM = Card.CardType.ROOM.ordinal();
+
+	private final DeductionEngine engine;
+	private final ExecutorService pool;
+	private final Chain[] chains;
+	// The type and position within its type of each card, by id
+	private final int[] typeOf;
+	private final int[] indexInType;
+	private final Card[][] cardsOfType;
+
+	/**
+	 * @param engine is what is known, which may take in more events between estimates
+	 * @param chainCount is how many chains to run, e.g. one per thread in the pool
+	 * @param random is split once for each chain
+	 * @param pool runs the chains, or null to run them one after another on the calling thread
+	 */
+	public SolutionEstimator(DeductionEngine engine, int chainCount, GameRandom random, ExecutorService pool) {
+		if (chainCount < 1) { throw new IllegalArgumentException("Need at least one chain, got " + chainCount); }
+		this.engine = engine;
+		this.pool = pool;
+		int cardCount = engine.cardCount();
+		typeOf = new int[cardCount];
+		indexInType = new int[cardCount];
+		int[] typeSizes = new int[Card.CardType.values().length];
+		for (int id = 0; id < cardCount; id++) {
+			typeOf[id] = engine.card(id).getType().ordinal();
+			indexInType[id] = typeSizes[typeOf[id]]++;
+		}
+		cardsOfType = new Card[typeSizes.length][];
+		for (int type = 0; type < typeSizes.length; type++) { cardsOfType[type] = new Card[typeSizes[type]]; }
+		for (int id = 0; id < cardCount; id++) { cardsOfType[typeOf[id]][indexInType[id]] = engine.card(id); }
+		chains = new Chain[chainCount];
+		for (int i = 0; i < chainCount; i++) { chains[i] = new Chain(random.split()); }
+	}
+
+	/**
+	 * Take a fixed number of samples from every chain, on top of any
+	 * already taken since the engine last changed. The answer only
+	 * depends on the random generator given, not on the pool.
+	 *
+	 * @param samplesPerChain is how many samples each chain adds
+	 * @return the estimate from every sample taken since the engine last changed
+	 */
+	public Estimate estimate(int samplesPerChain) {
+		return run(samplesPerChain, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Sample for about as long as a time budget allows (each chain takes
+	 * at least one sample), on top of any samples already taken since
+	 * the engine last changed.
+	 *
+	 * @param budget is how long to spend, including catching up with new events; a budget too long to count in nanoseconds has no deadline
+	 * @return the estimate from every sample taken since the engine last changed
+	 */
+	public Estimate estimate(Duration budget) {
+		long now = System.nanoTime();
+		long deadline;
+		try {
+			deadline = Math.addExact(now, budget.toNanos());
+		} catch (ArithmeticException e) {
+			deadline = budget.isNegative() ? now : Long.MAX_VALUE;
+		}
+		return run(Integer.MAX_VALUE, deadline);
+	}
+
+	private Estimate run(int samplesPerChain, long deadline) {
+		if (pool == null) {
+			for (Chain chain : chains) { chain.sample(samplesPerChain, deadline); }
+		} else {
+			List<Future<?>> running = new ArrayList<Future<?>>();
+			for (Chain chain : chains) { running.add(pool.submit(() -> chain.sample(samplesPerChain, deadline))); }
+			try {
+				for (Future<?> chain : running) { chain.get(); }
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) { throw (RuntimeException) e.getCause(); }
+				throw new IllegalStateException(e.getCause());
+			} catch (InterruptedException e) {
+				for (Future<?> chain : running) { chain.cancel(true); }
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Interrupted while sampling");
+			}
+		}
+		return new Estimate();
+	}
+
+	/**
+	 * One deal that agrees with the engine, and the counts of what it has sampled.
+	 */
+	private class Chain {
+		private final GameRandom random;
+		private final int holders = engine.holderCount();
+		private final int envelope = holders - 1;
+		// The holder of each card, by id, and the murder card of each type
+		private final int[] holderOf = new int[engine.cardCount()];
+		private final int[] murder = new int[cardsOfType.length];
+		private final long[] tupleCounts;
+		private final long[] holderCounts = new long[engine.cardCount() * holders];
+		private long samples;
+		// The engine version the deal and counts were made for, or -1 before the first deal
+		private int version = -1;
+
+		Chain(GameRandom random) {
+			this.random = random;
+			int tuples = 1;
+			for (Card[] cards : cardsOfType) { tuples *= cards.length; }
+			tupleCounts = new long[tuples];
+		}
+
+		void sample(int count, long deadline) {
+			catchUp();
+			int swaps = SWAPS_PER_SAMPLE * holderOf.length;
+			for (int taken = 0; taken < count; taken++) {
+				// Checking the clock costs more than a sample, so only look every so often
+				if (taken > 0 && (taken & 15) == 0 && (System.nanoTime() > deadline || Thread.currentThread().isInterrupted())) { return; }
+				for (int i = 0; i < swaps; i++) { trySwap(); }
+				record();
+			}
+		}
+
+		/**
+		 * Forget samples made before the last event, and deal again if the deal has been ruled out.
+		 */
+		private void catchUp() {
+			if (version == engine.version()) { return; }
+			Arrays.fill(tupleCounts, 0);
+			Arrays.fill(holderCounts, 0);
+			samples = 0;
+			if (version < 0 || !consistent()) {
+				deal();
+				for (int i = 0; i < BURN_IN * holderOf.length; i++) { trySwap(); }
+			}
+			version = engine.version();
+		}
+
+		private boolean consistent() {
+			for (int id = 0; id < holderOf.length; id++) {
+				if ((engine.possibleMask(id) & (1 << holderOf[id])) == 0) { return false; }
+			}
+			for (int clause = 0; clause < engine.clauseCount(); clause++) {
+				if (!satisfied(clause)) { return false; }
+			}
+			return true;
+		}
+
+		private boolean satisfied(int clause) {
+			int player = engine.clausePlayer(clause);
+			for (int id : engine.clauseCards(clause)) {
+				if (holderOf[id] == player) { return true; }
+			}
+			return false;
+		}
+
+		/**
+		 * Swap two random cards between their holders, if the deal still agrees with the engine afterwards.
+		 */
+		private void trySwap() {
+			int a = random.nextInt(holderOf.length), b = random.nextInt(holderOf.length);
+			int holderA = holderOf[a], holderB = holderOf[b];
+			if (holderA == holderB) { return; }
+			// The envelope must keep one card of each type
+			if ((holderA == envelope || holderB == envelope) && typeOf[a] != typeOf[b]) { return; }
+			if ((engine.possibleMask(a) & (1 << holderB)) == 0 || (engine.possibleMask(b) & (1 << holderA)) == 0) { return; }
+			holderOf[a] = holderB;
+			holderOf[b] = holderA;
+			if (!clausesHold(a) || !clausesHold(b)) {
+				holderOf[a] = holderA;
+				holderOf[b] = holderB;
+				return;
+			}
+			if (holderA == envelope) { murder[typeOf[a]] = b; }
+			if (holderB == envelope) { murder[typeOf[b]] = a; }
+		}
+
+		private boolean clausesHold(int id) {
+			for (int i = 0; i < engine.clauseCountOf(id); i++) {
+				if (!satisfied(engine.clauseOf(id, i))) { return false; }
+			}
+			return true;
+		}
+
+		private void record() {
+			tupleCounts[CardTuple.index(indexInType[murder[CHARACTER]], indexInType[murder[WEAPON]], indexInType[murder[ROOM]])]++;
+			for (int id = 0; id < holderOf.length; id++) { holderCounts[id * holders + holderOf[id]]++; }
+			samples++;
+		}
+
+		// ------------------------ DEALING ----------------------------
+
+		private void deal() {
+			// Cards with the fewest possible holders first, so dead ends are found early
+			List<Integer> order = new ArrayList<Integer>();
+			for (int id = 0; id < holderOf.length; id++) { order.add(id); }
+			random.shuffle(order);
+			order.sort(Comparator.comparingInt((Integer id) -> Integer.bitCount(engine.possibleMask(id))));
+			int[] left = new int[holders];
+			for (int holder = 0; holder < envelope; holder++) { left[holder] = engine.handSize(holder); }
+			Arrays.fill(holderOf, -1);
+			Arrays.fill(murder, -1);
+			if (!assign(order, 0, left)) { throw new IllegalStateException("No deal agrees with what is known"); }
+		}
+
+		private boolean assign(List<Integer> order, int position, int[] left) {
+			if (position == order.size()) { return true; }
+			int id = order.get(position);
+			int[] options = new int[holders];
+			int count = 0;
+			for (int mask = engine.possibleMask(id); mask != 0; mask &= mask - 1) {
+				int holder = Integer.numberOfTrailingZeros(mask);
+				if (holder == envelope ? murder[typeOf[id]] < 0 : left[holder] > 0) { options[count++] = holder; }
+			}
+			while (count > 0) {
+				int pick = random.nextInt(count);
+				int holder = options[pick];
+				options[pick] = options[--count];
+				holderOf[id] = holder;
+				if (holder == envelope) { murder[typeOf[id]] = id; } else { left[holder]--; }
+				if (clausesPossible(id) && assign(order, position + 1, left)) { return true; }
+				if (holder == envelope) { murder[typeOf[id]] = -1; } else { left[holder]++; }
+			}
+			holderOf[id] = -1;
+			return false;
+		}
+
+		/**
+		 * Whether every clause on a card can still be met, given the cards dealt so far.
+		 */
+		private boolean clausesPossible(int id) {
+			for (int i = 0; i < engine.clauseCountOf(id); i++) {
+				int clause = engine.clauseOf(id, i);
+				boolean open = false;
+				for (int other : engine.clauseCards(clause)) {
+					if (holderOf[other] == engine.clausePlayer(clause) || holderOf[other] < 0) { open = true; break; }
+				}
+				if (!open) { return false; }
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * The probabilities worked out from the samples of every chain.
+	 */
+	public class Estimate {
+		private final long samples;
+		private final long[] tupleCounts;
+		private final long[] holderCounts;
+		private final int holders = engine.holderCount();
+
+		private Estimate() {
+			long total = 0;
+			long[] tuples = new long[chains[0].tupleCounts.length];
+			long[] holding = new long[chains[0].holderCounts.length];
+			for (Chain chain : chains) {
+				total += chain.samples;
+				for (int i = 0; i < tuples.length; i++) { tuples[i] += chain.tupleCounts[i]; }
+				for (int i = 0; i < holding.length; i++) { holding[i] += chain.holderCounts[i]; }
+			}
+			this.samples = total;
+			this.tupleCounts = tuples;
+			this.holderCounts = holding;
+		}
+
+		/**
+		 * @return how many deals the estimate is made from
+		 */
+		public long samples() { return samples; }
+
+		/**
+		 * @param murder is a possible murder
+		 * @return the chance that it is the murder, or 0 if no samples were taken
+		 */
+		public double probability(CardTuple murder) {
+			if (samples == 0) { return 0; }
+			int tuple = CardTuple.index(indexInType[murder.characterCard().getId()], indexInType[murder.weaponCard().getId()], indexInType[murder.roomCard().getId()]);
+			return (double) tupleCounts[tuple] / samples;
+		}
+
+		/**
+		 * @param card is the card to look up
+		 * @param holder is a seat, or the engine's getSolutionHolder() for the murder envelope
+		 * @return the chance that the holder has the card, or 0 if no samples were taken
+		 */
+		public double probability(Card card, int holder) {
+			if (samples == 0) { return 0; }
+			return (double) holderCounts[card.getId() * holders + holder] / samples;
+		}
+
+		/**
+		 * @return the murder seen most often, or null if no samples were taken
+		 */
+		public CardTuple mostLikely() {
+			if (samples == 0) { return null; }
+			int best = 0;
+			for (int tuple = 1; tuple < tupleCounts.length; tuple++) {
+				if (tupleCounts[tuple] > tupleCounts[best]) { best = tuple; }
+			}
+			int characters = cardsOfType[CHARACTER].length, weapons = cardsOfType[WEAPON].length;
+			return new CardTuple(cardsOfType[CHARACTER][best / weapons % characters], cardsOfType[WEAPON][best % weapons], cardsOfType[ROOM][best / weapons / characters]);
+		}
+	}
+}
@@ -203,16 +203,16 @@ public class Tests {
     }
 
     /**
-     * Check Player cannot move to an unoccupied square if it is not directly
-     * adjacent to the Player's current Location
+     * Check Player cannot move to an unoccupied square that is further
+     * away than any dice roll from the Player's current Location
      */
     @Test public void test_04(){
         Game game = new Game();
         game.addPlayer(1, "Bob", "Miss Scarlet");
         Player myPlayer = game.getPlayers().get(0);
 
-        // This is the square three square directly above Miss Scarlet
-        Location destination = game.getBoardLocations()[21][7];
+        // This square is more than 12 steps away from Miss Scarlet
+        Location destination = game.getBoardLocations()[6][17];
 
         myPlayer.prepareForMove();
         myPlayer.move(destination);
@@ -342,4 +342,908 @@ public class Tests {
         assertEquals(expected, game.printBoard());
     }
 
+    /**
+     * Check two games built from the same seed deal the same cards
+     * and place the weapons on the same squares
+     */
+    @Test public void test_06(){
+        Game first = new Game(new HeadlessGameListener(), new GameRandom(42));
+        Game second = new Game(new HeadlessGameListener(), new GameRandom(42));
+        for (Game game : List.of(first, second)) {
+            game.addPlayer(1, "Bob", "Miss Scarlet");
+            game.addPlayer(2, "Andy", "Colonel Mustard");
+            game.addPlayer(3, "Cara", "Mrs White");
+            game.setup();
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals(first.getPlayers().get(i).getHand().keySet(), second.getPlayers().get(i).getHand().keySet());
+        }
+        for (String weapon : first.weapons) {
+            assertEquals(first.getPieces().get(weapon).location().point, second.getPieces().get(weapon).location().point);
+        }
+    }
+
+    /**
+     * Check random Room squares are never occupied or an entrance, and
+     * that a full Room has no random square left to give
+     */
+    @Test public void test_07(){
+        Game game = new Game(new HeadlessGameListener(), new GameRandom(7));
+        Room kitchen = game.getRoom("Kitchen");
+        int free = 0;
+        for (Location loc : kitchen.getLocations()) {
+            if (!loc.isOccupied() && !kitchen.getEntrances().contains(loc)) { free++; }
+        }
+        for (int i = 0; i < free; i++) {
+            Location loc = kitchen.getRandomRoomLocation();
+            assertFalse(loc.isOccupied());
+            assertFalse(kitchen.getEntrances().contains(loc));
+            new Piece("x", loc);
+        }
+        assertNull(kitchen.getRandomRoomLocation());
+    }
+
+    /**
+     * Check a Room's unoccupied exits follow Pieces moving on and off them
+     */
+    @Test public void test_08(){
+        Game game = new Game();
+        Room study = game.getRoom("Study");
+        int exitCount = study.getExits().size();
+        Location exit = study.getExits().iterator().next();
+        assertEquals(exitCount, study.getUnoccupiedExitCount());
+
+        Piece piece = new Piece("x", exit);
+        assertEquals(exitCount - 1, study.getUnoccupiedExits().size());
+        assertFalse(study.getUnoccupiedExits().contains(exit));
+
+        piece.setLocation(study.getRandomRoomLocation());
+        assertEquals(exitCount, study.getUnoccupiedExits().size());
+        assertTrue(study.getUnoccupiedExits().contains(exit));
+        assertTrue(study.playerCanRoll());
+    }
+
+    /**
+     * Check the squares a Player can reach after rolling follow the dice
+     * roll, and stop being reachable once the Player has used their moves
+     */
+    @Test public void test_09(){
+        Game game = new Game(new HeadlessGameListener(), new GameRandom(9));
+        game.addPlayer(1, "Bob", "Miss Scarlet");
+        game.addPlayer(2, "Andy", "Colonel Mustard");
+        game.addPlayer(3, "Cara", "Mrs White");
+        game.setup();
+        game.play();
+        Player scarlet = game.getCurrentPlayer();
+        assertFalse(game.isReachableThisTurn(game.getBoardLocations()[23][7]));
+
+        game.playerRollsDice();
+        int roll = scarlet.getRemainingMoves();
+        // The column above Miss Scarlet is open passageway for at least 2 squares
+        assertTrue(game.isReachableThisTurn(game.getBoardLocations()[23][7]));
+        assertTrue(game.isReachableThisTurn(game.getBoardLocations()[22][7]));
+        // Mrs White's starting square is occupied and much too far away
+        assertFalse(game.isReachableThisTurn(game.getBoardLocations()[0][9]));
+
+        // Walk straight up (there is a wall 8 squares up), then check the
+        // starting square cannot be walked back to, as it has been walked
+        // on, but the last square can be stepped back onto while there
+        // are moves left
+        int steps = Math.min(roll, 8);
+        for (int i = 0; i < steps; i++) {
+            Location here = game.getPlayerLocation(scarlet);
+            assertTrue(scarlet.move(game.getBoardLocations()[here.point.y - 1][here.point.x]));
+        }
+        assertEquals(roll - steps, scarlet.getRemainingMoves());
+        Location start = game.getBoardLocations()[24][7];
+        Location previous = game.getBoardLocations()[25 - steps][7];
+        assertFalse(game.isReachableThisTurn(start));
+        assertEquals(roll - steps > 0, game.isReachableThisTurn(previous));
+        // Whatever the squares are lit up as, clicking them agrees
+        assertFalse(scarlet.move(start));
+        assertEquals(roll - steps > 0, scarlet.move(previous));
+    }
+
+    /**
+     * Check the distances to Rooms worked out when the Board is loaded
+     */
+    @Test public void test_10(){
+        Game game = new Game();
+        Room kitchen = game.getRoom("Kitchen");
+        Room study = game.getRoom("Study");
+        for(Location exit : kitchen.getExits()){
+            assertEquals(1, game.getStepsToRoom(exit, kitchen));
+        }
+        assertEquals(0, game.getStepsToRoom(kitchen.getRandomRoomLocation(), kitchen));
+        // Walking out of a Room onto an exit takes one more step than walking in from it
+        Location exit = kitchen.getExits().iterator().next();
+        assertTrue(game.getStepsToRoom(kitchen.getRandomRoomLocation(), study) <= game.getStepsToRoom(exit, study) + 1);
+        // One step away from an exit is one step further
+        Location start = game.getBoardLocations()[24][7];
+        Location above = game.getBoardLocations()[23][7];
+        assertEquals(game.getStepsToRoom(above, study) + 1, game.getStepsToRoom(start, study));
+        // The Cellar has no way in
+        assertEquals(-1, game.getStepsToRoom(start, game.getRoom("Cellar")));
+    }
+
+    /**
+     * Check clicking on a square or Room further away walks the Player
+     * there in one move, using up one move per square walked
+     */
+    @Test public void test_11(){
+        Game game = new Game(new HeadlessGameListener(), new GameRandom(5));
+        game.addPlayer(1, "Bob", "Miss Scarlet");
+        game.addPlayer(2, "Andy", "Colonel Mustard");
+        game.addPlayer(3, "Cara", "Mrs White");
+        game.setup();
+        game.play();
+        Player scarlet = game.getCurrentPlayer();
+        game.playerRollsDice();
+        assertEquals(11, scarlet.getRemainingMoves());
+
+        assertTrue(scarlet.move(game.getBoardLocations()[18][7]));
+        assertEquals(game.getBoardLocations()[18][7], game.getPlayerLocation(scarlet));
+        assertEquals(5, scarlet.getRemainingMoves());
+        // The only way back to the start is over squares already visited this turn
+        assertFalse(scarlet.move(game.getBoardLocations()[24][7]));
+        assertEquals(5, scarlet.getRemainingMoves());
+
+        // The Dining Room is 4 steps away, so clicking inside it walks in
+        assertTrue(scarlet.move(game.getBoardLocations()[9][0]));
+        assertEquals("Dining Room", game.getPlayerRoom(scarlet).getName());
+        assertEquals(0, scarlet.getRemainingMoves());
+        assertTrue(game.getCanSuggest());
+    }
+
+    /**
+     * Check writing the Board out reuses the walls but always shows where
+     * the Players are now, and matches printBoard()
+     */
+    @Test public void test_12() throws java.io.IOException {
+        Game game = new Game();
+        game.addPlayer(1, "Bob", "Miss Scarlet");
+        String before = game.printBoard();
+        Player scarlet = game.getPlayers().get(0);
+        scarlet.prepareForMove();
+        scarlet.move(game.getBoardLocations()[23][7]);
+        String after = game.printBoard();
+        assertFalse(before.equals(after));
+        // Miss Scarlet's old square is blank again and her new one shows her
+        assertEquals(' ', after.charAt(49 * 98 + 30));
+        assertEquals('S', after.charAt(47 * 98 + 30));
+
+        java.io.StringWriter writer = new java.io.StringWriter();
+        game.printBoard(writer);
+        assertEquals(after, writer.toString());
+        StringBuilder builder = new StringBuilder();
+        game.printBoard(builder);
+        assertEquals(after, builder.toString());
+    }
+
+    /**
+     * Check a compiled board loads back exactly the same as the text file
+     * it was made from
+     */
+    @Test public void test_13() throws java.io.IOException {
+        BoardLoader.Layout text = BoardLoader.load("standard_board.txt");
+        assertEquals(24, text.width);
+        assertEquals(25, text.height);
+        assertEquals("Kitchen", text.roomName(1, 0));
+        assertEquals("Passageway", text.roomName(24, 7));
+        assertNull(text.roomName(0, 0));
+        assertEquals((1 << BitBoard.NORTH) | (1 << BitBoard.WEST), text.walls(1, 0));
+
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        BoardLoader.writeCompiled(text, out);
+        BoardLoader.Layout compiled = BoardLoader.parse(java.nio.ByteBuffer.wrap(out.toByteArray()));
+        for(int row = 0; row < text.height; row++){
+            for(int col = 0; col < text.width; col++){
+                assertEquals(text.roomName(row, col), compiled.roomName(row, col));
+                assertEquals(text.walls(row, col), compiled.walls(row, col));
+            }
+        }
+        assertEquals(text.roomNames(), compiled.roomNames());
+        assertEquals(text.startSquares(), compiled.startSquares());
+        assertEquals(text.labels().size(), compiled.labels().size());
+        // A compiled board cut short is rejected rather than half loaded
+        byte[] truncated = java.util.Arrays.copyOf(out.toByteArray(), 40);
+        assertThrows(java.io.IOException.class, () -> BoardLoader.parse(java.nio.ByteBuffer.wrap(truncated)));
+    }
+
+    /**
+     * Check two Games share the Board's walls and Rooms but never see
+     * each other's pieces
+     */
+    @Test public void test_14(){
+        Game first = new Game();
+        Game second = new Game();
+        first.addPlayer(1, "Bob", "Miss Scarlet");
+        Player scarlet = first.getPlayers().get(0);
+        scarlet.prepareForMove();
+        assertTrue(scarlet.move(first.getBoardLocations()[23][7]));
+
+        assertTrue(first.getBoardLocations()[23][7].isOccupied());
+        assertFalse(second.getBoardLocations()[23][7].isOccupied());
+        assertTrue(second.getBoardLocations()[24][7].isOccupied());
+        assertEquals(first.getRoom("Study").getExits().size(), second.getRoom("Study").getExits().size());
+        assertEquals(first.getStepsToRoom(first.getBoardLocations()[23][7], first.getRoom("Study")),
+                second.getStepsToRoom(second.getBoardLocations()[23][7], second.getRoom("Study")));
+        assertFalse(first.printBoard().equals(second.printBoard()));
+    }
+
+    /**
+     * Check a whole game can be played on a generated board far bigger
+     * than the standard one, with more than 64 Rooms
+     */
+    @Test public void test_15() throws java.io.IOException {
+        String text = BoardGenerator.generate(120, 90, 70, 3);
+        BoardTopology topology = new BoardTopology(BoardLoader.parse(java.nio.ByteBuffer.wrap(text.getBytes(java.nio.charset.StandardCharsets.UTF_8))));
+        Game game = new Game(new HeadlessGameListener(), new GameRandom(11), topology);
+        assertEquals(120, game.getBoardWidth());
+        assertEquals(90, game.getBoardHeight());
+        assertEquals(70, game.rooms.size());
+        assertEquals("Room 70", game.rooms.get(69));
+
+        // A Room past the first 64 can be walked into from its door
+        Room last = game.getRoom("Room 70");
+        Location door = last.getExits().iterator().next();
+        assertEquals(1, game.getStepsToRoom(door, last));
+
+        for(int seat = 0; seat < 3; seat++){
+            game.addPlayer(seat + 1, "Bot " + (seat + 1), game.characters.get(seat), new BotStrategy());
+        }
+        game.setup();
+        game.play();
+        for(int turns = 0; !game.isOver() && turns < Simulator.MAX_TURNS; turns++){
+            game.playBotTurn();
+            game.endCurrentTurn();
+        }
+        assertTrue(game.printBoard().length() > 90 * 2 * 120 * 4);
+    }
+
+    /**
+     * Check the board canvas finds the square under the mouse by
+     * arithmetic and can paint itself without any images loaded
+     */
+    @Test public void test_16(){
+        Game game = new Game(new HeadlessGameListener(), new GameRandom(3));
+        BoardCanvas canvas = new BoardCanvas(game, name -> null);
+        // 20 pixels a square, with 10 pixels to spare on the left and right
+        canvas.setSize(24 * 20 + 20, 25 * 20);
+        assertEquals(game.getLocation(0, 0), canvas.locationAt(10, 0));
+        assertEquals(game.getLocation(3, 10), canvas.locationAt(10 + 10 * 20 + 19, 3 * 20 + 5));
+        assertEquals(game.getLocation(24, 23), canvas.locationAt(10 + 24 * 20 - 1, 25 * 20 - 1));
+        assertNull(canvas.locationAt(5, 100));
+        assertNull(canvas.locationAt(10 + 24 * 20, 100));
+
+        java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(canvas.getWidth(), canvas.getHeight(), java.awt.image.BufferedImage.TYPE_INT_RGB);
+        java.awt.Graphics2D g = image.createGraphics();
+        canvas.paint(g);
+        g.dispose();
+        // The middle of Miss Scarlet's starting square is Passageway
+        assertEquals(Cluedo.PASSAGEWAY_COLOR.getRGB(), image.getRGB(10 + 7 * 20 + 10, 24 * 20 + 10));
+    }
+
+    /**
+     * Check every piece knows its name and id, and the canvas draws a
+     * piece's picture scaled to its square
+     */
+    @Test public void test_17(){
+        Game game = new Game(new HeadlessGameListener(), new GameRandom(3));
+        boolean[] ids = new boolean[Board.PIECE_COUNT];
+        for(java.util.Map.Entry<String, Piece> entry : game.getPieces().entrySet()){
+            assertEquals(entry.getKey(), entry.getValue().name());
+            ids[entry.getValue().id()] = true;
+        }
+        for(boolean id : ids){
+            assertTrue(id);
+        }
+
+        java.awt.image.BufferedImage red = new java.awt.image.BufferedImage(100, 100, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        java.awt.Graphics2D paint = red.createGraphics();
+        paint.setColor(java.awt.Color.red);
+        paint.fillRect(0, 0, 100, 100);
+        paint.dispose();
+        BoardCanvas canvas = new BoardCanvas(game, name -> name.equals("Miss Scarlet") ? red : null);
+        canvas.setSize(24 * 32, 25 * 32);
+        java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(canvas.getWidth(), canvas.getHeight(), java.awt.image.BufferedImage.TYPE_INT_RGB);
+        java.awt.Graphics2D g = image.createGraphics();
+        canvas.paint(g);
+        g.dispose();
+        assertEquals(java.awt.Color.red.getRGB(), image.getRGB(7 * 32 + 16, 24 * 32 + 16));
+        assertEquals("Miss Scarlet", canvas.getToolTipText(new java.awt.event.MouseEvent(canvas, 0, 0, 0, 7 * 32 + 16, 24 * 32 + 16, 0, false)));
+    }
+
+    /**
+     * Check pictures load in the background and each size of a picture
+     * is only scaled once, keeping only the most recently used sizes
+     */
+    @Test public void test_18(){
+        AssetCache assets = new AssetCache("resources", 2);
+        assets.preload(java.util.Arrays.asList("dice_one.png", "dice_two.png", "missing.png"));
+        javax.swing.ImageIcon small = assets.icon("dice_one.png", 50, 50);
+        assertEquals(50, small.getIconWidth());
+        assertEquals(50, small.getIconHeight());
+        assertSame(small, assets.icon("dice_one.png", 50, 50));
+        assertNotSame(small, assets.icon("dice_one.png", 20, 30));
+        assertEquals(30, assets.icon("dice_one.png", 20, 30).getIconHeight());
+        assets.icon("dice_two.png", 50, 50);
+        assertEquals(2, assets.iconCount());
+        // The 50x50 die one was used longest ago, so it was scaled again
+        assertNotSame(small, assets.icon("dice_one.png", 50, 50));
+        assertNull(assets.icon("missing.png", 50, 50));
+    }
+
+    /**
+     * Check moving a piece only repaints the squares it moved between
+     */
+    @Test public void test_19() throws Exception {
+        Game game = new Game(new HeadlessGameListener(), new GameRandom(3));
+        List<java.awt.Rectangle> repainted = new java.util.ArrayList<>();
+        BoardCanvas canvas = new BoardCanvas(game, name -> null) {
+            @Override
+            public void repaint(long when, int x, int y, int width, int height) {
+                repainted.add(new java.awt.Rectangle(x, y, width, height));
+            }
+        };
+        canvas.setSize(24 * 20, 25 * 20);
+        game.getPieces().get("Miss Scarlet").setLocation(game.getLocation(23, 7));
+        // Both squares changed, but the repaint waits until the move is over
+        assertTrue(repainted.isEmpty());
+        java.awt.EventQueue.invokeAndWait(() -> { });
+        assertEquals(1, repainted.size());
+        assertEquals(new java.awt.Rectangle(7 * 20, 23 * 20, 20, 40), repainted.get(0));
+    }
+
+    /**
+     * Check the deduction engine follows passes and refutations through
+     * to who holds which card, and to the murder cards
+     */
+    @Test public void test_20(){
+        Game game = new Game();
+        game.addPlayer(1, "Bob", "Miss Scarlet");
+        game.addPlayer(2, "Andy", "Colonel Mustard");
+        game.addPlayer(3, "Sam", "Mrs White");
+        game.setup();
+        List<Card> cards = game.getAllCards();
+        for(int id = 0; id < cards.size(); id++){
+            assertEquals(id, cards.get(id).getId());
+        }
+        DeductionEngine engine = new DeductionEngine(cards, new int[]{6, 6, 6});
+        Card scarlet = game.getCard("Miss Scarlet"), mustard = game.getCard("Colonel Mustard");
+        Card rope = game.getCard("Rope"), dagger = game.getCard("Dagger");
+        Card kitchen = game.getCard("Kitchen"), study = game.getCard("Study");
+
+        // Seat 1 holds one of these, and is then ruled out of two of them
+        engine.refuted(1, new CardTuple(mustard, dagger, study));
+        assertEquals(-1, engine.holder(study));
+        engine.passed(1, new CardTuple(mustard, rope, kitchen));
+        engine.doesNotHold(1, dagger);
+        assertEquals(1, engine.holder(study));
+        assertFalse(engine.couldBeSolution(study));
+
+        // Nobody at the table holds any of these, so they are the murder
+        assertFalse(engine.knowsSolution());
+        for(int seat = 0; seat < 3; seat++){
+            engine.passed(seat, new CardTuple(scarlet, rope, kitchen));
+        }
+        assertTrue(engine.knowsSolution());
+        assertSame(kitchen, engine.solutionCard(Card.CardType.ROOM));
+        assertEquals(engine.getSolutionHolder(), engine.holder(rope));
+        assertFalse(engine.couldBeSolution(dagger));
+
+        // Study cannot be in two hands at once
+        assertThrows(IllegalStateException.class, () -> engine.holds(2, study));
+    }
+
+    /**
+     * Check the solution estimator only samples deals that agree with what
+     * is known, and gives the same answer however its chains are run
+     */
+    @Test public void test_21() throws Exception {
+        Game game = new Game();
+        game.addPlayer(1, "Bob", "Miss Scarlet");
+        game.addPlayer(2, "Andy", "Colonel Mustard");
+        game.addPlayer(3, "Sam", "Mrs White");
+        game.setup();
+        DeductionEngine engine = new DeductionEngine(game.getAllCards(), new int[]{6, 6, 6});
+        Card scarlet = game.getCard("Miss Scarlet"), rope = game.getCard("Rope"), kitchen = game.getCard("Kitchen");
+        Card plum = game.getCard("Professor Plum");
+        engine.holds(0, plum);
+        engine.refuted(1, new CardTuple(scarlet, rope, kitchen));
+
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(2);
+        try {
+            SolutionEstimator.Estimate alone = new SolutionEstimator(engine, 3, new GameRandom(5), null).estimate(500);
+            SolutionEstimator.Estimate pooled = new SolutionEstimator(engine, 3, new GameRandom(5), pool).estimate(500);
+            assertEquals(1500, alone.samples());
+            assertEquals(alone.probability(kitchen, 1), pooled.probability(kitchen, 1), 0);
+            assertEquals(1.0, alone.probability(plum, 0), 0);
+            // Andy holds at least one of the three, so they cannot all be the murder
+            assertEquals(0.0, alone.probability(new CardTuple(scarlet, rope, kitchen)), 0);
+        } finally {
+            pool.shutdown();
+        }
+
+        // Without samples there are no odds to give, and a budget too long to count is not an error
+        SolutionEstimator estimator = new SolutionEstimator(engine, 2, new GameRandom(6), null);
+        SolutionEstimator.Estimate empty = estimator.estimate(0);
+        assertEquals(0, empty.samples());
+        assertEquals(0.0, empty.probability(plum, 0), 0);
+        assertEquals(0.0, empty.probability(new CardTuple(scarlet, rope, kitchen)), 0);
+        assertNull(empty.mostLikely());
+        Thread.currentThread().interrupt();
+        assertTrue(estimator.estimate(java.time.Duration.ofSeconds(Long.MAX_VALUE)).samples() > 0);
+        assertTrue(Thread.interrupted());
+
+        // Once nobody can refute, the estimate is certain
+        estimator = new SolutionEstimator(engine, 2, new GameRandom(6), null);
+        estimator.estimate(100);
+        CardTuple murder = new CardTuple(game.getCard("Mrs Peacock"), game.getCard("Dagger"), game.getCard("Study"));
+        for(int seat = 0; seat < 3; seat++){
+            engine.passed(seat, murder);
+        }
+        SolutionEstimator.Estimate certain = estimator.estimate(100);
+        assertEquals(200, certain.samples());
+        assertEquals(1.0, certain.probability(murder), 0);
+        assertSame(murder.roomCard(), certain.mostLikely().roomCard());
+    }
+
+    /**
+     * Check bot seats play their own turns next to a person, without
+     * asking the GameListener to decide anything for them
+     */
+    @Test public void test_22(){
+        List<Player> asked = new java.util.ArrayList<>();
+        HeadlessGameListener person = new HeadlessGameListener() {
+            @Override
+            public CardTuple askForThreeCards(String message, String titleMessage, String buttonName, String roomName) {
+                asked.add(game.getCurrentPlayer());
+                return super.askForThreeCards(message, titleMessage, buttonName, roomName);
+            }
+
+            @Override
+            public Card askToRefute(Player suggester, Player refuter, CardTuple suggestion, java.util.Set<Card> refuteOptions) {
+                asked.add(refuter);
+                return super.askToRefute(suggester, refuter, suggestion, refuteOptions);
+            }
+        };
+        int[] botTurns = new int[1];
+        class CountingBot extends BotStrategy {
+            @Override
+            public void move(Player player) {
+                botTurns[0]++;
+                super.move(player);
+            }
+        }
+        Game game = new Game(person, new GameRandom(8));
+        game.addPlayer(1, "Bot 1", "Miss Scarlet", new CountingBot());
+        game.addPlayer(2, "Andy", "Colonel Mustard");
+        game.addPlayer(3, "Bot 3", "Mrs White", new CountingBot());
+        game.setup();
+        assertTrue(game.getPlayers().get(0).isBot());
+        assertFalse(game.getPlayers().get(1).isBot());
+
+        // Miss Scarlet goes first, then it waits for Andy
+        game.play();
+        assertEquals(1, botTurns[0]);
+        for(int turn = 0; turn < 20 && !game.isOver(); turn++){
+            assertEquals("Andy", game.getCurrentPlayer().getPlayerName());
+            game.endCurrentTurn();
+        }
+        assertTrue(botTurns[0] > 2);
+        for(Player player : asked){
+            assertEquals("Andy", player.getPlayerName());
+        }
+    }
+
+    /**
+     * Check hands and suggestions as bits agree with the cards in them,
+     * including cards whose ids do not fit in one long
+     */
+    @Test public void test_23(){
+        Game game = new Game();
+        game.addPlayer(1, "Bob", "Miss Scarlet");
+        game.addPlayer(2, "Andy", "Colonel Mustard");
+        game.addPlayer(3, "Sam", "Mrs White");
+        game.setup();
+        Card scarlet = game.getCard("Miss Scarlet"), rope = game.getCard("Rope"), kitchen = game.getCard("Kitchen");
+        CardTuple suggestion = new CardTuple(scarlet, rope, kitchen);
+        assertEquals((1L << scarlet.getId()) | (1L << rope.getId()) | (1L << kitchen.getId()), suggestion.mask());
+        assertTrue(suggestion.fitsMask());
+        for(Player player : game.getPlayers().values()){
+            boolean holdsAny = player.getHand().containsValue(scarlet) || player.getHand().containsValue(rope) || player.getHand().containsValue(kitchen);
+            assertEquals(holdsAny, player.canRefute(suggestion));
+            assertEquals(holdsAny, !player.refuteV2(suggestion).isEmpty());
+            for(Card card : game.getAllCards()){
+                assertEquals(player.getHand().containsValue(card), player.holds(card));
+            }
+        }
+
+        Player bob = game.getPlayers().get(0);
+        Card farRoom = new Card("Room 70", Card.CardType.ROOM, 81);
+        CardTuple far = new CardTuple(scarlet, rope, farRoom);
+        assertFalse(far.fitsMask());
+        assertEquals(bob.holds(scarlet) || bob.holds(rope), bob.canRefute(far));
+        bob.giveCard(farRoom);
+        assertTrue(bob.holds(farRoom));
+        assertTrue(bob.canRefute(far));
+        assertEquals(0, bob.getSeat());
+        assertEquals(2, game.getSeat(game.getPlayers().get(2)));
+    }
+
+    /**
+     * Check cards are shared between games on the same board, and every
+     * murder has its own number from 0 to 323
+     */
+    @Test public void test_24(){
+        Game first = new Game(new HeadlessGameListener(), new GameRandom(1));
+        Game second = new Game(new HeadlessGameListener(), new GameRandom(2));
+        assertSame(first.getCardRegistry(), second.getCardRegistry());
+        assertSame(first.getCard("Rope"), second.getCard("rope"));
+        assertNull(first.getCard("Bread Knife"));
+
+        CardRegistry cards = first.getCardRegistry();
+        assertEquals(324, cards.tupleCount());
+        for(int index = 0; index < cards.tupleCount(); index++){
+            CardTuple tuple = cards.tuple(index);
+            assertEquals(index, tuple.index());
+            assertEquals(index, new CardTuple(tuple.roomCard(), tuple.characterCard(), tuple.weaponCard()).index());
+        }
+        assertSame(cards.get(Card.CardType.ROOM, 8), cards.get(cards.get(Card.CardType.ROOM, 8).getId()));
+
+        // Exactly one murder is right
+        first.addPlayer(1, "Bob", "Miss Scarlet");
+        first.addPlayer(2, "Andy", "Colonel Mustard");
+        first.addPlayer(3, "Sam", "Mrs White");
+        first.setup();
+        int right = 0;
+        for(int index = 0; index < cards.tupleCount(); index++){
+            right += first.checkAccusation(cards.tuple(index)) ? 1 : 0;
+        }
+        assertEquals(1, right);
+    }
+
+    /**
+     * Check pieces and Rooms looked up by their cards' index are the ones with those names
+     */
+    @Test public void test_25(){
+        Board board = new Board(new GameRandom(1));
+        CardRegistry cards = CardRegistry.forRooms(board.getPlayableRoomNames());
+        for(Card card : cards.cards()){
+            if(card.getType() == Card.CardType.ROOM){
+                assertSame(board.rooms.get(card.getName()), board.getRoom(card));
+            } else {
+                assertSame(board.pieces.get(card.getName()), board.getPiece(card));
+            }
+        }
+        int passageways = 0;
+        for(Room room : board.rooms.values()){
+            passageways += room.isPassageway() ? 1 : 0;
+        }
+        assertEquals(1, passageways);
+        assertSame(board.rooms.get("Passageway"), board.getPassageway());
+
+        Game game = new Game(new HeadlessGameListener(), new GameRandom(1));
+        game.addPlayer(1, "Bob", "Mrs Peacock");
+        assertEquals(4, game.getPlayers().get(4).getCharacterIndex());
+    }
+
+    /**
+     * Check a saved game can be put back, and carried over to another game with the same seats
+     */
+    @Test public void test_26() throws java.io.IOException {
+        Game game = snapshotGame(new GameRandom(3));
+        game.setup();
+        game.play();
+        for(int turn = 0; turn < 5 && !game.isOver(); turn++){
+            game.playBotTurn();
+            game.endCurrentTurn();
+        }
+        GameSnapshot snapshot = game.save();
+        String board = game.printBoard();
+        Player current = game.getCurrentPlayer();
+        for(int turn = 0; turn < 10 && !game.isOver(); turn++){
+            game.playBotTurn();
+            game.endCurrentTurn();
+        }
+        game.restore(snapshot);
+        assertEquals(board, game.printBoard());
+        assertSame(current, game.getCurrentPlayer());
+        assertArrayEquals(snapshot.toByteArray(), game.save().toByteArray());
+
+        // Through bytes, into a game that was never dealt
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        snapshot.writeTo(new java.io.DataOutputStream(bytes));
+        GameSnapshot read = GameSnapshot.readFrom(new java.io.DataInputStream(new java.io.ByteArrayInputStream(bytes.toByteArray())));
+        Game fork = snapshotGame(new GameRandom(4));
+        fork.restore(read);
+        assertEquals(board, fork.printBoard());
+        for(int seat = 0; seat < 3; seat++){
+            assertEquals(game.getPlayers().get(seat).getHand().keySet(), fork.getPlayers().get(seat).getHand().keySet());
+        }
+        assertArrayEquals(snapshot.toByteArray(), fork.save().toByteArray());
+        // Both games' bots play on from the snapshot
+        for(Game restored : List.of(game, fork)){
+            for(int turn = 0; turn < 3 && !restored.isOver(); turn++){
+                restored.playBotTurn();
+                restored.endCurrentTurn();
+            }
+        }
+
+        Game smaller = new Game(new HeadlessGameListener(), new GameRandom(3));
+        smaller.addPlayer(1, "Bot 1", "Miss Scarlet", new BotStrategy());
+        assertThrows(IllegalArgumentException.class, () -> smaller.restore(snapshot));
+        assertThrows(IllegalArgumentException.class, () -> new GameSnapshot(new byte[]{ 0 }));
+    }
+
+    /**
+     * Check every turn of a game is journaled in order, across chunks of the file and after reopening it
+     */
+    @Test public void test_27() throws java.io.IOException {
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("cluedo", ".journal");
+        java.nio.file.Files.delete(file);
+        try {
+            Game game = snapshotGame(new GameRandom(5));
+            int turns = 0;
+            try (GameJournal journal = new GameJournal(file, 3, 8)) {
+                game.setJournal(journal);
+                game.setup();
+                game.play();
+                for(; turns < 20 && !game.isOver(); turns++){
+                    game.playBotTurn();
+                    game.endCurrentTurn();
+                }
+            }
+            List<GameJournal.Entry> entries = GameJournal.read(file);
+            assertEquals(GameJournal.GAME_STARTED, entries.get(0).kind());
+            assertEquals(3, entries.get(0).y());
+            int rolls = 0, moves = 0;
+            for(int i = 0; i < entries.size(); i++){
+                GameJournal.Entry entry = entries.get(i);
+                assertEquals(i + 1, entry.sequence());
+                if(entry.kind() == GameJournal.ROLL){
+                    assertEquals(entry.x(), entry.y() + entry.z());
+                    rolls++;
+                }
+                if(entry.kind() == GameJournal.STEP || entry.kind() == GameJournal.ROOM_ENTERED){
+                    assertNotEquals(entry.y(), entry.z());
+                    moves++;
+                }
+            }
+            assertEquals(turns, rolls);
+            assertTrue(moves > 0);
+
+            // Reopening carries on after the last record
+            try (GameJournal journal = new GameJournal(file, 3, 8)) {
+                assertEquals(entries.size(), journal.getSequence());
+                journal.record(GameJournal.TURN_STARTED, 0, 0, 0, 0);
+            }
+            assertEquals(entries.size() + 1, GameJournal.read(file).size());
+
+            java.nio.file.Files.write(file, new byte[]{ 1, 2, 3 });
+            assertThrows(java.io.IOException.class, () -> new GameJournal(file));
+        } finally {
+            java.nio.file.Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Check snapshots keep squares past 65535 on a big board, and are not restored onto a board of another size
+     */
+    @Test public void test_28() throws java.io.IOException {
+        String text = BoardGenerator.generate(300, 300, 40, 2);
+        BoardTopology topology = new BoardTopology(BoardLoader.parse(java.nio.ByteBuffer.wrap(text.getBytes(java.nio.charset.StandardCharsets.UTF_8))));
+        Game game = new Game(new HeadlessGameListener(), new GameRandom(2), topology);
+        game.addPlayer(1, "Bot 1", "Miss Scarlet", new BotStrategy());
+        game.addPlayer(2, "Bot 2", "Colonel Mustard", new BotStrategy());
+        game.addPlayer(3, "Bot 3", "Mrs White", new BotStrategy());
+        game.setup();
+        Player scarlet = game.getPlayers().get(0);
+        Location far = game.getBoardLocations()[299][150];
+        game.movePlayer(scarlet, far);
+        GameSnapshot snapshot = game.save();
+        game.movePlayer(scarlet, game.getBoardLocations()[0][0]);
+        game.restore(snapshot);
+        assertSame(far, game.getPlayerLocation(scarlet));
+
+        Game standard = snapshotGame(new GameRandom(2));
+        assertThrows(IllegalArgumentException.class, () -> standard.restore(snapshot));
+        assertThrows(IllegalArgumentException.class, () -> game.restore(standard.save()));
+    }
+
+    /**
+     * Check boards with Rooms too small for every piece are not made, and
+     * that a full Room cannot be walked into
+     */
+    @Test public void test_29(){
+        assertThrows(IllegalArgumentException.class, () -> BoardGenerator.generate(24, 24, 36, 7));
+
+        Game game = snapshotGame(new GameRandom(6));
+        game.setup();
+        game.play();
+        Player player = game.getCurrentPlayer();
+        Room kitchen = game.getRoom("Kitchen");
+        Location exit = kitchen.getExits().iterator().next();
+        game.movePlayer(player, exit);
+        game.playerRollsDice();
+        for(Location loc = kitchen.getRandomRoomLocation(); loc != null; loc = kitchen.getRandomRoomLocation()){
+            new Piece("x", loc);
+        }
+        assertFalse(player.move(kitchen.getLocations().iterator().next()));
+        assertSame(exit, game.getPlayerLocation(player));
+    }
+
+    /**
+     * Check pictures can be asked for without waiting, and that the Event
+     * Dispatch Thread is told when each one has loaded
+     */
+    @Test public void test_30() throws Exception {
+        AssetCache assets = new AssetCache("resources", 4);
+        java.util.concurrent.CountDownLatch loaded = new java.util.concurrent.CountDownLatch(2);
+        boolean[] onDispatchThread = new boolean[2];
+        assets.whenLoaded("dice_three.png", () -> { onDispatchThread[0] = java.awt.EventQueue.isDispatchThread(); loaded.countDown(); });
+        assets.whenLoaded("missing.png", () -> { onDispatchThread[1] = java.awt.EventQueue.isDispatchThread(); loaded.countDown(); });
+        assertTrue(loaded.await(10, java.util.concurrent.TimeUnit.SECONDS));
+        assertTrue(onDispatchThread[0] && onDispatchThread[1]);
+        assertEquals(40, assets.loadedIcon("dice_three.png", 40, 40).getIconWidth());
+        assertNull(assets.loadedIcon("missing.png", 40, 40));
+        assertNull(assets.loadedImage(null));
+    }
+
+    /**
+     * Check where every piece is can be worked out from the journal alone,
+     * one square at a time, including pieces moved by suggestions
+     */
+    @Test public void test_31() throws java.io.IOException {
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("cluedo", ".journal");
+        java.nio.file.Files.delete(file);
+        try {
+            Game game = snapshotGame(new GameRandom(12));
+            int[] squares = new int[Board.PIECE_COUNT];
+            for(Piece piece : game.getPieces().values()){
+                squares[piece.id()] = piece.location().index;
+            }
+            try (GameJournal journal = new GameJournal(file)) {
+                game.setJournal(journal);
+                game.setup();
+                game.play();
+                for(int turns = 0; turns < 60 && !game.isOver(); turns++){
+                    game.playBotTurn();
+                    game.endCurrentTurn();
+                }
+            }
+            int width = game.getBoardWidth(), suggestionMoves = 0;
+            for(GameJournal.Entry entry : GameJournal.read(file)){
+                int piece;
+                if(entry.kind() == GameJournal.PIECE_MOVED){
+                    piece = entry.x();
+                    suggestionMoves++;
+                }
+                else if(entry.kind() == GameJournal.STEP || entry.kind() == GameJournal.ROOM_ENTERED){
+                    // Seats follow the characters, which are the first pieces
+                    piece = entry.seat();
+                    Location from = game.getLocation(entry.y() / width, entry.y() % width);
+                    // Walks are recorded square by square; only walking into a Room jumps to a square inside it
+                    if(entry.kind() == GameJournal.STEP && from.getRoom().isPassageway()){
+                        assertEquals(1, Math.abs(entry.y() / width - entry.z() / width) + Math.abs(entry.y() % width - entry.z() % width));
+                    }
+                }
+                else {
+                    continue;
+                }
+                assertEquals(squares[piece], entry.y());
+                squares[piece] = entry.z();
+            }
+            assertTrue(suggestionMoves > 0);
+            for(Piece piece : game.getPieces().values()){
+                assertEquals(piece.location().index, squares[piece.id()]);
+            }
+        } finally {
+            java.nio.file.Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Check a Room label is printed over a Player standing under it
+     */
+    @Test public void test_32() throws java.io.IOException {
+        String text = new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get("standard_board.txt")), java.nio.charset.StandardCharsets.UTF_8);
+        // Move the label down from the wall line onto the squares of row 3
+        text = text.replace("@label 6,78,CONSERVATORY", "@label 7,78,CONSERVATORY");
+        BoardTopology topology = new BoardTopology(BoardLoader.parse(java.nio.ByteBuffer.wrap(text.getBytes(java.nio.charset.StandardCharsets.UTF_8))));
+        Game game = new Game(new HeadlessGameListener(), new GameRandom(4), topology);
+        game.addPlayer(1, "Bot 1", "Miss Scarlet", new BotStrategy());
+        game.addPlayer(2, "Bot 2", "Colonel Mustard", new BotStrategy());
+        game.addPlayer(3, "Bot 3", "Mrs White", new BotStrategy());
+        game.setup();
+        Player scarlet = game.getPlayers().get(0);
+        game.movePlayer(scarlet, game.getBoardLocations()[3][20]);
+        String board = game.printBoard();
+        String line = board.split("\n")[7];
+        assertEquals("CONSERVATORY", line.substring(78, 90));
+
+        StringBuilder out = new StringBuilder();
+        game.printBoard(out);
+        assertEquals(board, out.toString());
+    }
+
+    /**
+     * Check a snapshot with a seat, murder, card or square out of range is
+     * turned down without changing the game it was restored into
+     */
+    @Test public void test_33(){
+        Game game = snapshotGame(new GameRandom(5));
+        game.setup();
+        game.play();
+        for(int turn = 0; turn < 4 && !game.isOver(); turn++){
+            game.playBotTurn();
+            game.endCurrentTurn();
+        }
+        byte[] before = game.save().toByteArray();
+        String board = game.printBoard();
+        // After the version and header: state, flags, current seat, murder, turn order, then each seat and each square
+        int state = 1 + 12 + 3;
+        int hands = state + 7 + 3;
+        int squares = before.length - Board.PIECE_COUNT * Integer.BYTES;
+        int[][] tampered = {
+                { state + 2, 3 },
+                { state + 3, 0x7f },
+                { state + 7, 9 },
+                { hands + 2, 0x80 },
+                { squares, 0x7f },
+                { before.length - 4, 0xff }
+        };
+        for(int[] change : tampered){
+            byte[] bytes = before.clone();
+            bytes[change[0]] = (byte) change[1];
+            GameSnapshot snapshot = new GameSnapshot(bytes);
+            assertThrows(IllegalArgumentException.class, () -> game.restore(snapshot));
+            assertArrayEquals(before, game.save().toByteArray());
+            assertEquals(board, game.printBoard());
+        }
+    }
+
+    /**
+     * Check a walk avoiding some squares is not mistaken for one avoiding
+     * the same number of other squares
+     */
+    @Test public void test_34(){
+        Board board = new Board(new GameRandom(1));
+        Location[][] squares = board.getCurrentBoard();
+        Location from = null, left = null, right = null;
+        for(int row = 0; row < squares.length && from == null; row++){
+            for(int col = 1; col + 1 < squares[row].length && from == null; col++){
+                Location square = squares[row][col];
+                Room passageway = board.getPassageway();
+                if(square.getRoom() == passageway && squares[row][col - 1].getRoom() == passageway && squares[row][col + 1].getRoom() == passageway
+                        && board.canReach(square, 1, squares[row][col - 1]) && board.canReach(square, 1, squares[row][col + 1])){
+                    from = square;
+                    left = squares[row][col - 1];
+                    right = squares[row][col + 1];
+                }
+            }
+        }
+        assertNotNull(from);
+        assertTrue(board.canReach(from, 1, right, java.util.Set.of(left)));
+        assertFalse(board.canReach(from, 1, right, java.util.Set.of(right)));
+        assertTrue(board.canReach(from, 1, right, java.util.Set.of(left)));
+    }
+
+    /**
+     * Check a board file that cannot be read stops the Board being made
+     */
+    @Test public void test_35(){
+        java.io.UncheckedIOException e = assertThrows(java.io.UncheckedIOException.class, () -> Board.loadTopology("missing_board.txt"));
+        assertTrue(e.getMessage().contains("missing_board.txt"));
+    }
+
+    private Game snapshotGame(GameRandom random){
+        Game game = new Game(new HeadlessGameListener(), random);
+        game.addPlayer(1, "Bot 1", "Miss Scarlet", new BotStrategy());
+        game.addPlayer(2, "Bot 2", "Colonel Mustard", new BotStrategy());
+        game.addPlayer(3, "Bot 3", "Mrs White", new BotStrategy());
+        return game;
+    }
+
 }